@@ -0,0 +1,41 @@
+package com.example.learn.benchmark;
+
+import com.example.learn.domain.codec.CompactCodec;
+import org.redisson.api.RedissonClient;
+import org.redisson.spring.data.connection.RedissonConnectionFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * 压测用的最小 Spring 上下文，只加载 domain 层
+ * Redis 地址通过 -Dredis.address 指定，默认本机单节点
+ */
+@Configuration
+@ComponentScan("com.example.learn.domain")
+public class BenchmarkContext {
+
+    @Bean
+    public RedisConnectionFactory redisConnectionFactory(RedissonClient redissonClient) {
+        return new RedissonConnectionFactory(redissonClient);
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(BenchmarkContext.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(
+                        "spring.redis.redisson.config.singleServerConfig.address=" + System.getProperty("redis.address", "redis://127.0.0.1:6379"),
+                        "spring.redis.redisson.config.codec=" + System.getProperty("redis.codec", CompactCodec.class.getName()),
+                        // 关闭近端缓存，测量的是到Redis的真实开销
+                        "learn.cache.near.enabled=false")
+                // 各压测自己的配置，覆盖上面的默认值
+                .properties(properties)
+                .run();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.learn.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 压测入口，参数与 JMH 命令行一致
+ * 默认以 JSON 格式输出结果到 jmh-result.json，便于在不同构建之间对比
+ * 例：java -Dredis.address=redis://127.0.0.1:6379 -jar target/benchmarks.jar CodecBenchmark
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            builder.result("jmh-result.json");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.learn.benchmark;
+
+import com.example.learn.domain.codec.CompactCodec;
+import com.example.learn.domain.codec.CompactRedisSerializer;
+import com.example.learn.domain.codec.CompressionType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编解码耗时，按值大小分组，不依赖Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    @Param({"json", "compact", "compact-lz4", "jdk", "template-compact-lz4"})
+    private String codec;
+
+    // 值的近似大小(字节)
+    @Param({"128", "4096", "65536"})
+    private int payloadSize;
+
+    private BytesCodec bytesCodec;
+    private Object payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        bytesCodec = create(codec);
+        payload = createPayload(payloadSize);
+        encoded = bytesCodec.encode(payload);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return bytesCodec.encode(payload);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return bytesCodec.decode(encoded);
+    }
+
+    private static Object createPayload(int size) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", 123456789L);
+        map.put("name", "learn-service");
+        map.put("enabled", Boolean.TRUE);
+        List<String> items = new ArrayList<>();
+        int length = 0;
+        for (int i = 0; length < size; i++) {
+            String item = "item-" + i + "-description";
+            items.add(item);
+            length += item.length();
+        }
+        map.put("items", items);
+        return map;
+    }
+
+    private static BytesCodec create(String name) {
+        switch (name) {
+            case "json":
+                return redisson(new JsonJacksonCodec());
+            case "compact":
+                return redisson(new CompactCodec(CompressionType.NONE, 0, true, null));
+            case "compact-lz4":
+                return redisson(new CompactCodec(CompressionType.LZ4, 1024, true, null));
+            case "jdk":
+                return template(new JdkSerializationRedisSerializer());
+            case "template-compact-lz4":
+                return template(new CompactRedisSerializer(CompressionType.LZ4, 1024, true, CodecBenchmark.class.getClassLoader()));
+            default:
+                throw new IllegalArgumentException("Unknown codec: " + name);
+        }
+    }
+
+    private static BytesCodec redisson(Codec codec) {
+        return new BytesCodec() {
+            @Override
+            public byte[] encode(Object value) {
+                ByteBuf buf = null;
+                try {
+                    buf = codec.getValueEncoder().encode(value);
+                    return ByteBufUtil.getBytes(buf);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    if (buf != null) {
+                        buf.release();
+                    }
+                }
+            }
+
+            @Override
+            public Object decode(byte[] bytes) {
+                ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+                try {
+                    return codec.getValueDecoder().decode(buf, null);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    buf.release();
+                }
+            }
+        };
+    }
+
+    private static BytesCodec template(RedisSerializer<Object> serializer) {
+        return new BytesCodec() {
+            @Override
+            public byte[] encode(Object value) {
+                return serializer.serialize(value);
+            }
+
+            @Override
+            public Object decode(byte[] bytes) {
+                return serializer.deserialize(bytes);
+            }
+        };
+    }
+
+    private interface BytesCodec {
+        byte[] encode(Object value);
+
+        Object decode(byte[] bytes);
+    }
+}
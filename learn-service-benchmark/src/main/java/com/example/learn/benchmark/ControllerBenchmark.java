@@ -0,0 +1,56 @@
+package com.example.learn.benchmark;
+
+import com.example.learn.adapter.cxf.MyCxfService;
+import com.example.learn.api.service.MyController;
+import com.example.learn.service.service.MyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyController.getMessage 调用链 + Wrapper 的 JSON 序列化，不依赖Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+    private MyController controller;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        MyCxfService delegate = new MyCxfService();
+        inject(delegate, "myService", new MyService());
+        controller = new MyController();
+        inject(controller, "delegate", delegate);
+        // 与 Spring MVC 默认消息转换器使用相同的配置
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] getMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(controller.getMessage().join());
+    }
+
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
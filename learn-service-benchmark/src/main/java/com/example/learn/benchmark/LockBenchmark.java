@@ -0,0 +1,140 @@
+package com.example.learn.benchmark;
+
+import com.example.learn.domain.utils.RedissonUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同一个锁key在不同线程数下的 tryLock/unlock 吞吐，需要本地Redis(单节点)
+ * localStriping=true 时本地线程先在该锁键的本地锁上排队
+ * 每轮迭代发到Redis的命令数(来自 INFO commandstats)和平均每次加锁的命令数作为辅助指标写入结果
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockBenchmark {
+    private static final String LOCK_KEY = "bench:lock";
+
+    @Param({"false", "true"})
+    private boolean localStriping;
+
+    private ConfigurableApplicationContext context;
+    private RedissonUtils redissonUtils;
+    private RedisNode redisNode;
+
+    private final AtomicLong locks = new AtomicLong();
+    private final AtomicBoolean commandsClaimed = new AtomicBoolean();
+    private long commandsBefore;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start("learn.cache.lock.localStriping=" + localStriping);
+        redissonUtils = context.getBean(RedissonUtils.class);
+        redisNode = context.getBean(RedissonClient.class).getRedisNodes(RedisNodes.SINGLE).getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        locks.set(0);
+        commandsClaimed.set(false);
+        commandsBefore = totalCommands();
+    }
+
+    /**
+     * 辅助指标，各线程的值求和后写入结果
+     * 命令数是服务端全局的，只由第一个结束迭代的线程上报，其余线程为0
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RedisCommands {
+        // 本轮迭代发到Redis的命令数
+        public long redisCommands;
+        // 平均每次成功加锁的命令数
+        public double commandsPerLock;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            redisCommands = 0;
+            commandsPerLock = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(LockBenchmark benchmark) {
+            if (benchmark.commandsClaimed.compareAndSet(false, true)) {
+                redisCommands = benchmark.totalCommands() - benchmark.commandsBefore;
+                long total = benchmark.locks.get();
+                commandsPerLock = total == 0 ? 0 : (double) redisCommands / total;
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean threads1(RedisCommands counters) throws InterruptedException {
+        return lockAndRelease();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threads4(RedisCommands counters) throws InterruptedException {
+        return lockAndRelease();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean threads16(RedisCommands counters) throws InterruptedException {
+        return lockAndRelease();
+    }
+
+    private boolean lockAndRelease() throws InterruptedException {
+        if (redissonUtils.tryLock(LOCK_KEY, 100, 10_000, TimeUnit.MILLISECONDS)) {
+            locks.incrementAndGet();
+            redissonUtils.unlock(LOCK_KEY);
+            return true;
+        }
+        return false;
+    }
+
+    // 服务端累计执行的命令数，包含 INFO 本身，迭代间的误差可以忽略
+    private long totalCommands() {
+        long total = 0;
+        for (Map.Entry<String, String> entry : redisNode.info(RedisNode.InfoSection.COMMANDSTATS).entrySet()) {
+            for (String field : entry.getValue().split(",")) {
+                if (field.startsWith("calls=")) {
+                    total += Long.parseLong(field.substring("calls=".length()));
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.learn.benchmark;
+
+import com.example.learn.domain.utils.RedisUtils;
+import com.example.learn.domain.utils.RedissonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐个key操作 vs 批量(管道/RBatch)操作，需要本地Redis
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisOpsBenchmark {
+    @Param({"10", "50"})
+    private int keyCount;
+
+    private ConfigurableApplicationContext context;
+    private RedisUtils redisUtils;
+    private RedissonUtils redissonUtils;
+
+    private List<String> keys;
+    private Map<String, Object> values;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        redisUtils = context.getBean(RedisUtils.class);
+        redissonUtils = context.getBean(RedissonUtils.class);
+
+        keys = new ArrayList<>(keyCount);
+        values = new LinkedHashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            String key = "bench:ops:" + i;
+            keys.add(key);
+            values.put(key, "value-" + i);
+        }
+        redisUtils.mset(values, 600);
+        redissonUtils.mset(values, 600, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void redissonSingleGet(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(redissonUtils.get(key));
+        }
+    }
+
+    @Benchmark
+    public void redissonBatchGet(Blackhole bh) {
+        bh.consume(redissonUtils.mget(keys));
+    }
+
+    @Benchmark
+    public void redissonSingleSet(Blackhole bh) {
+        values.forEach((key, value) -> bh.consume(redissonUtils.set(key, value, 600, TimeUnit.SECONDS)));
+    }
+
+    @Benchmark
+    public void redissonBatchSet(Blackhole bh) {
+        bh.consume(redissonUtils.mset(values, 600, TimeUnit.SECONDS));
+    }
+
+    @Benchmark
+    public void templateSingleGet(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(redisUtils.get(key));
+        }
+    }
+
+    @Benchmark
+    public void templateBatchGet(Blackhole bh) {
+        bh.consume(redisUtils.mget(keys));
+    }
+
+    @Benchmark
+    public void templateSingleSet(Blackhole bh) {
+        values.forEach((key, value) -> bh.consume(redisUtils.set(key, value, 600)));
+    }
+
+    @Benchmark
+    public void templateBatchSet(Blackhole bh) {
+        bh.consume(redisUtils.mset(values, 600));
+    }
+}
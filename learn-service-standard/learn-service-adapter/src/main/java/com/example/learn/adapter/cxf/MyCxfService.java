@@ -1,19 +1,49 @@
 package com.example.learn.adapter.cxf;
 
 import com.example.learn.api.delegate.MyDelegate;
+import com.example.learn.client.adapter.DemoAdapter;
+import com.example.learn.client.model.demo.DemoRequest;
 import com.example.learn.model.Wrapper;
 import com.example.learn.service.service.MyService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
 @Component
 public class MyCxfService implements MyDelegate {
     @Autowired
     private MyService myService;
 
+    @Autowired
+    private DemoAdapter demoAdapter;
+
     @Override
-    public Wrapper<String> getMessage() {
+    public CompletableFuture<Wrapper<String>> getMessage() {
+        // 纯本地计算，直接在调用线程完成
         String res = myService.getMessage();
-        return Wrapper.<String>success().data(res);
+        return CompletableFuture.completedFuture(Wrapper.<String>success().data(res));
+    }
+
+    @Override
+    public CompletableFuture<Wrapper<String>> querySomething(String id, String condition) {
+        DemoRequest request = new DemoRequest();
+        request.setId(id);
+        request.setCondition(condition);
+        return demoAdapter.querySomethingAsync(request)
+                .thenApply(response -> Wrapper.<String>success().data(response.getId()))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("Failed to query demo-service, id: {}", id, cause);
+                    if (cause instanceof RejectedExecutionException || cause instanceof TimeoutException) {
+                        return Wrapper.<String>fail().code(503).message("demo-service is busy");
+                    }
+                    return Wrapper.<String>fail().message("Failed to query demo-service");
+                });
     }
 }
@@ -3,7 +3,12 @@ package com.example.learn.api.delegate;
 import com.example.learn.model.Wrapper;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public interface MyDelegate {
-    Wrapper<String> getMessage();
+    CompletableFuture<Wrapper<String>> getMessage();
+
+    // 查询下游 demo-service，返回下游结果的id
+    CompletableFuture<Wrapper<String>> querySomething(String id, String condition);
 }
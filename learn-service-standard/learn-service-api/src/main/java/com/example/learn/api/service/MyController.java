@@ -5,8 +5,12 @@ import com.example.learn.model.Wrapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
+// 返回 CompletableFuture 时由 Spring MVC 异步处理，等待期间不占用 Tomcat 线程
 @RestController
 @RequestMapping("/v1/demo")
 public class MyController {
@@ -14,7 +18,13 @@ public class MyController {
     private MyDelegate delegate;
 
     @GetMapping("/message/query")
-    public Wrapper<String> getMessage() {
+    public CompletableFuture<Wrapper<String>> getMessage() {
         return delegate.getMessage();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/something/query")
+    public CompletableFuture<Wrapper<String>> querySomething(@RequestParam String id,
+                                                             @RequestParam(required = false) String condition) {
+        return delegate.querySomething(id, condition);
+    }
+}
@@ -1,17 +1,206 @@
 package com.example.learn.client.adapter;
 
+import com.example.learn.client.config.DemoClientProperties;
 import com.example.learn.client.feign.DemoFeignClient;
+import com.example.learn.client.http.HedgeRoute;
 import com.example.learn.client.model.demo.DemoRequest;
 import com.example.learn.client.model.demo.DemoResponse;
+import com.example.learn.client.support.AdaptiveLimiter;
+import com.example.learn.client.support.CallGuard;
+import com.example.learn.client.support.CircuitBreaker;
+import com.example.learn.client.support.Hedger;
+import com.example.learn.client.support.MicroBatcher;
+import com.example.learn.client.support.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
 @Component
 public class DemoAdapter {
     @Autowired
     private DemoFeignClient client;
 
+    @Autowired
+    private DemoClientProperties properties;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> registryProvider;
+
+    // 专用的有界线程池：下游变慢时只会占满这里，不会耗尽 Tomcat 线程
+    private ThreadPoolExecutor executor;
+
+    // 相同请求的并发调用合并为一次
+    private SingleFlight<DemoRequest, DemoResponse> singleFlight;
+
+    // 出站调用的并发限制与熔断，超过限制时在发出前直接失败
+    private CallGuard guard;
+
+    // 攒批，未启用时为null
+    private MicroBatcher<DemoRequest, DemoResponse> batcher;
+
+    // 对冲，未启用或启用了攒批时为null
+    private Hedger hedger;
+
+    // 攒批窗口和对冲延迟的定时器，两者都未启用时为null
+    private ScheduledThreadPoolExecutor timer;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "demo-client-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        MeterRegistry registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        singleFlight = new SingleFlight<>("demo-service", registry);
+        guard = new CallGuard("demo-service", limiter(registry), circuitBreaker(registry), registry);
+        DemoClientProperties.Batch batch = properties.getBatch();
+        DemoClientProperties.Hedging hedging = properties.getHedging();
+        if (batch.isEnabled() || hedging.isEnabled()) {
+            timer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "demo-client-timer");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.setRemoveOnCancelPolicy(true);
+        }
+        if (batch.isEnabled()) {
+            batcher = new MicroBatcher<>("demo-service", requests -> guard.call(() -> client.querySomethingBatch(requests)),
+                    batch.getMaxSize(), batch.getWindow(), timer, executor, registry);
+        } else if (hedging.isEnabled()) {
+            hedger = new Hedger("demo-service", timer, hedging.getPercentile(), hedging.getMinDelay(),
+                    hedging.getBudgetRatio(), hedging.getMaxBudget(), registry);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (batcher != null) {
+            // 发出已收集的请求，不让调用方等到超时
+            batcher.flush();
+        }
+        if (timer != null) {
+            timer.shutdown();
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * 同步调用，与进行中的相同请求合并；启用攒批或对冲时等待异步调用返回
+     * @param request 请求
+     * @return 响应
+     */
     public DemoResponse querySomething(DemoRequest request) {
-        return client.querySomething(request);
+        if (batcher != null || hedger != null) {
+            return join(querySomethingAsync(request));
+        }
+        if (!properties.isCoalescing()) {
+            return guard.call(() -> client.querySomething(request));
+        }
+        // leader 在当前线程上发起调用，follower 等待其结果
+        return join(singleFlight.execute(copy(request),
+                () -> CompletableFuture.completedFuture(guard.call(() -> client.querySomething(request)))));
+    }
+
+    /**
+     * 在专用线程池上异步调用，与进行中的相同请求合并；启用攒批时与其他请求合成一次批量调用，启用对冲时慢调用会在另一个实例上重发
+     * 线程池和队列都满时返回以 RejectedExecutionException 失败的结果；超时只结束等待，进行中的 HTTP 调用仍受 Feign 超时约束
+     * @param request 请求
+     * @return 响应
+     */
+    public CompletableFuture<DemoResponse> querySomethingAsync(DemoRequest request) {
+        if (!properties.isCoalescing()) {
+            return submit(request);
+        }
+        return singleFlight.execute(copy(request), () -> submit(request));
+    }
+
+    private CompletableFuture<DemoResponse> submit(DemoRequest request) {
+        try {
+            CompletableFuture<DemoResponse> future;
+            if (batcher != null) {
+                future = batcher.submit(copy(request));
+            } else if (hedger != null) {
+                HedgeRoute route = new HedgeRoute();
+                future = hedger.execute(attempt -> run(() -> route.call(attempt > 0, () -> guard.call(() -> client.querySomething(request)))));
+            } else {
+                future = CompletableFuture.supplyAsync(() -> guard.call(() -> client.querySomething(request)), executor);
+            }
+            return future.orTimeout(properties.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // 可取消的调用：取消后尚在队列中的任务不再执行；已发出的 HTTP 调用无法中止，由 Feign 超时兜底
+    private CompletableFuture<DemoResponse> run(Supplier<DemoResponse> call) {
+        CompletableFuture<DemoResponse> future = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(call.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((value, e) -> {
+            if (future.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    private AdaptiveLimiter limiter(MeterRegistry registry) {
+        DemoClientProperties.Limiter limiter = properties.getLimiter();
+        if (!limiter.isEnabled()) {
+            return null;
+        }
+        return new AdaptiveLimiter("demo-service", limiter.getInitialLimit(), limiter.getMinLimit(), limiter.getMaxLimit(),
+                limiter.getBackoffRatio(), limiter.getLatencyThreshold(), registry);
+    }
+
+    private CircuitBreaker circuitBreaker(MeterRegistry registry) {
+        DemoClientProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        if (!breaker.isEnabled()) {
+            return null;
+        }
+        return new CircuitBreaker("demo-service", breaker.getFailureRateThreshold(), breaker.getSlidingWindowSize(),
+                breaker.getMinimumCalls(), breaker.getOpenDuration(), breaker.getHalfOpenCalls(), registry);
+    }
+
+    private static DemoResponse join(CompletableFuture<DemoResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // 作为合并key和批量请求元素的副本，避免调用方在请求进行中修改入参
+    private static DemoRequest copy(DemoRequest request) {
+        DemoRequest key = new DemoRequest();
+        key.setId(request.getId());
+        key.setCondition(request.getCondition());
+        return key;
     }
 }
@@ -0,0 +1,12 @@
+package com.example.learn.client.config;
+
+import com.example.learn.client.http.HedgeLoadBalancerConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({DemoClientProperties.class, FeignPoolProperties.class})
+@LoadBalancerClient(name = "demo-service", configuration = HedgeLoadBalancerConfiguration.class)
+public class DemoClientConfig {
+}
@@ -0,0 +1,74 @@
+package com.example.learn.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.client.demo")
+public class DemoClientProperties {
+    // 异步调用的专用线程数，即同时进行中的下游调用上限
+    private int threads = 16;
+    // 等待线程的任务队列长度，满时直接失败而不是占用调用方线程
+    private int queueCapacity = 100;
+    // 异步调用的整体超时(毫秒)，应不小于 Feign 的 readTimeout
+    private long timeout = 10000;
+    // 是否合并进行中的相同请求
+    private boolean coalescing = true;
+    // 攒批为批量调用，需要下游提供批量接口
+    private Batch batch = new Batch();
+    // 出站调用的自适应并发限制
+    private Limiter limiter = new Limiter();
+    // 熔断
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    // 对冲请求，只用于幂等的 querySomething，启用攒批时不生效
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Batch {
+        private boolean enabled = false;
+        // 每批最大请求数，达到后立即发送
+        private int maxSize = 50;
+        // 攒批的最长等待时间(毫秒)
+        private long window = 5;
+    }
+
+    @Data
+    public static class Limiter {
+        private boolean enabled = true;
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        // 过载时并发上限的收缩比例
+        private double backoffRatio = 0.9;
+        // 耗时超过该值(毫秒)视为过载
+        private long latencyThreshold = 2000;
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = false;
+        // 失败率阈值(百分比)
+        private int failureRateThreshold = 50;
+        // 统计最近多少次调用
+        private int slidingWindowSize = 50;
+        // 窗口内至少多少次调用才计算失败率
+        private int minimumCalls = 20;
+        // 打开状态持续时间(毫秒)
+        private long openDuration = 10000;
+        // 半开状态的试探调用数
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+        // 对冲延迟取最近调用耗时的百分位
+        private double percentile = 95;
+        // 对冲延迟的下限(毫秒)
+        private long minDelay = 50;
+        // 对冲请求占总请求的比例上限
+        private double budgetRatio = 0.1;
+        // 预算令牌上限，即突发时最多连续对冲的次数
+        private int maxBudget = 10;
+    }
+}
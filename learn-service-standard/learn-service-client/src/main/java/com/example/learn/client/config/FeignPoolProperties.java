@@ -0,0 +1,55 @@
+package com.example.learn.client.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feign 连接池配置，与 FeignClientProperties 共用 feign.client.config.&lt;name&gt;，这里只读取其中的 pool 部分
+ * 未配置 pool 的客户端使用 default 的 pool，两者都没有时使用默认值(不做逐项合并)
+ */
+@Data
+@ConfigurationProperties(prefix = "feign.client")
+public class FeignPoolProperties {
+    private Map<String, ClientConfig> config = new HashMap<>();
+
+    public Pool getPool(String name) {
+        ClientConfig client = config.get(name);
+        if (client != null && client.getPool() != null) {
+            return client.getPool();
+        }
+        ClientConfig defaults = config.get("default");
+        return defaults != null && defaults.getPool() != null ? defaults.getPool() : new Pool();
+    }
+
+    @Data
+    public static class ClientConfig {
+        private Pool pool;
+    }
+
+    @Data
+    public static class Pool {
+        private Backend backend = Backend.APACHE;
+        // 总连接数上限
+        private int maxConnections = 200;
+        // 每个目标地址(实例)的连接数上限，仅 APACHE 生效(OKHTTP 忽略该项)
+        private int maxConnectionsPerRoute = 50;
+        // 空闲超过该时间(毫秒)的连接被回收
+        private long idleTimeout = 30000;
+        // 服务端未返回 Keep-Alive 时连接的保持时间(毫秒)
+        private long keepAlive = 60000;
+        // 连接的最长存活时间(毫秒)，到期后不再复用，便于感知实例变化，仅 APACHE 生效
+        private long timeToLive = 900000;
+        // 启用 HTTP/2，HTTPS 连接通过 ALPN 协商，服务端不支持或明文连接时使用 HTTP/1.1，仅 OKHTTP 生效
+        private boolean http2 = false;
+    }
+
+    public enum Backend {
+        // Apache HttpClient 4：支持按路由限制连接数与连接池排队统计
+        APACHE,
+        // OkHttp：支持 HTTP/2，不支持按路由限制连接数
+        OKHTTP
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.learn.client.feign;
 
 import com.example.learn.client.model.demo.DemoRequest;
+import com.example.learn.client.http.HedgeFeignConfiguration;
+import com.example.learn.client.http.PooledFeignConfiguration;
 import com.example.learn.client.model.demo.DemoResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "demo-service")
+import java.util.List;
+
+@FeignClient(name = "demo-service", configuration = {PooledFeignConfiguration.class, HedgeFeignConfiguration.class})
 public interface DemoFeignClient {
     @PostMapping("/demo-service/v1/demo/query")
     DemoResponse querySomething(@RequestBody DemoRequest request);
-}
\ No newline at end of file
+
+    // 批量查询，响应与请求按下标一一对应
+    @PostMapping("/demo-service/v1/demo/query/batch")
+    List<DemoResponse> querySomethingBatch(@RequestBody List<DemoRequest> requests);
+}
@@ -0,0 +1,52 @@
+package com.example.learn.client.http;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 排除 X-Hedge-Exclude 请求头指定的实例，保证对冲调用落到另一个实例上
+ * 只剩这一个实例时不排除
+ */
+public class HedgeAwareServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    public HedgeAwareServiceInstanceListSupplier(ServiceInstanceListSupplier delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get();
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        String excluded = excluded(request);
+        if (excluded == null) {
+            return delegate.get(request);
+        }
+        return delegate.get(request).map(instances -> {
+            List<ServiceInstance> filtered = instances.stream()
+                    .filter(instance -> !excluded.equals(HedgeRoute.instance(instance)))
+                    .collect(Collectors.toList());
+            return filtered.isEmpty() ? instances : filtered;
+        });
+    }
+
+    private static String excluded(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext)) {
+            return null;
+        }
+        RequestDataContext context = (RequestDataContext) request.getContext();
+        if (context.getClientRequest() == null || context.getClientRequest().getHeaders() == null) {
+            return null;
+        }
+        return context.getClientRequest().getHeaders().getFirst(HedgeRoute.EXCLUDE_HEADER);
+    }
+}
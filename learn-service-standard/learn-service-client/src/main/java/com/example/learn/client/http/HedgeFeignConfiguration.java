@@ -0,0 +1,23 @@
+package com.example.learn.client.http;
+
+import feign.RequestInterceptor;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 对冲调用的 Feign 客户端级别配置，通过 @FeignClient(configuration = HedgeFeignConfiguration.class) 引用
+ * 与 @LoadBalancerClient(configuration = HedgeLoadBalancerConfiguration.class) 配合使用
+ * 不加 @Configuration，原因同 PooledFeignConfiguration
+ */
+public class HedgeFeignConfiguration {
+
+    // 对冲调用带上需要排除的实例，由 HedgeAwareServiceInstanceListSupplier 在选择实例时处理
+    @Bean
+    public RequestInterceptor hedgeRouteInterceptor() {
+        return template -> {
+            String excluded = HedgeRoute.excluded();
+            if (excluded != null) {
+                template.header(HedgeRoute.EXCLUDE_HEADER, excluded);
+            }
+        };
+    }
+}
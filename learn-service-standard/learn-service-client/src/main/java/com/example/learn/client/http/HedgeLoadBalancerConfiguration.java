@@ -0,0 +1,30 @@
+package com.example.learn.client.http;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 负载均衡客户端级别的配置，通过 @LoadBalancerClient(configuration = HedgeLoadBalancerConfiguration.class) 引用
+ * 在默认的实例列表(服务发现 + 缓存)外加一层对冲排除，没有 X-Hedge-Exclude 请求头时与默认行为一致；
+ * 选出实例后记录首次调用所在的实例
+ * 不加 @Configuration，原因同 PooledFeignConfiguration
+ */
+public class HedgeLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier hedgeAwareServiceInstanceListSupplier(ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withBlockingDiscoveryClient()
+                .withCaching()
+                .with((ctx, delegate) -> new HedgeAwareServiceInstanceListSupplier(delegate))
+                .build(context);
+    }
+
+    @Bean
+    public LoadBalancerLifecycle<Object, Object, ServiceInstance> hedgeRouteRecorder() {
+        return new HedgeRouteRecorder();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.learn.client.http;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * 一次对冲请求的路由信息，让对冲调用避开首次调用所在的实例
+ * 首次调用经过负载均衡后记录实际请求的实例(host:port)，对冲调用通过 X-Hedge-Exclude 请求头把该实例交给
+ * HedgeAwareServiceInstanceListSupplier 排除；Feign 同步调用全程在调用线程上执行，因此用 ThreadLocal 传递
+ */
+public class HedgeRoute {
+    public static final String EXCLUDE_HEADER = "X-Hedge-Exclude";
+
+    private static final ThreadLocal<Attempt> CURRENT = new ThreadLocal<>();
+
+    // 首次调用所在的实例，尚未选出时为null
+    private volatile String firstInstance;
+
+    /**
+     * 在当前线程上执行一次调用
+     * @param hedged 是否为对冲调用
+     * @param call Feign 调用
+     * @return 调用结果
+     */
+    public <T> T call(boolean hedged, Supplier<T> call) {
+        Attempt previous = CURRENT.get();
+        CURRENT.set(new Attempt(this, hedged));
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 当前对冲调用需要排除的实例，不是对冲调用或首次调用尚未选出实例时返回null
+     */
+    static String excluded() {
+        Attempt attempt = CURRENT.get();
+        return attempt != null && attempt.hedged ? attempt.route.firstInstance : null;
+    }
+
+    /**
+     * 记录首次调用实际请求的实例
+     */
+    static void record(ServiceInstance instance) {
+        Attempt attempt = CURRENT.get();
+        if (attempt != null && !attempt.hedged) {
+            attempt.route.firstInstance = instance(instance);
+        }
+    }
+
+    /**
+     * 实例的标识(host:port)，记录与排除使用同一种写法
+     */
+    static String instance(ServiceInstance instance) {
+        URI uri = instance.getUri();
+        return uri != null ? instance(uri) : instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static String instance(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+
+    private static class Attempt {
+        private final HedgeRoute route;
+        private final boolean hedged;
+
+        private Attempt(HedgeRoute route, boolean hedged) {
+            this.route = route;
+            this.hedged = hedged;
+        }
+    }
+}
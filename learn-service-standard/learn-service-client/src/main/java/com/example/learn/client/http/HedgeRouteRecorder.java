@@ -0,0 +1,29 @@
+package com.example.learn.client.http;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+
+/**
+ * 负载均衡选出实例后记录首次调用实际请求的实例，供对冲调用排除
+ * FeignBlockingLoadBalancerClient 在调用线程上回调 onStartRequest，因此可以写入 HedgeRoute 的 ThreadLocal
+ */
+public class HedgeRouteRecorder implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer()) {
+            HedgeRoute.record(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    }
+}
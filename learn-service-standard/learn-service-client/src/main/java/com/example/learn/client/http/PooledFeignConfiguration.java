@@ -0,0 +1,33 @@
+package com.example.learn.client.http;
+
+import com.example.learn.client.config.FeignPoolProperties;
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign 客户端级别的配置，通过 @FeignClient(configuration = PooledFeignConfiguration.class) 引用
+ * 不加 @Configuration，避免被组件扫描后成为所有 Feign 客户端的全局配置
+ * 连接池参数取自 feign.client.config.&lt;name&gt;.pool
+ */
+public class PooledFeignConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public PooledHttpClient pooledHttpClient(@Value("${feign.client.name}") String name, FeignPoolProperties properties,
+                                             ObjectProvider<MeterRegistry> registryProvider) {
+        return new PooledHttpClient(name, properties.getPool(name), registryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    // 自定义 Client 需要自己包装负载均衡
+    @Bean
+    public Client feignClient(PooledHttpClient pooledHttpClient, LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory) {
+        return new FeignBlockingLoadBalancerClient(pooledHttpClient.getClient(), loadBalancerClient, loadBalancerClientFactory);
+    }
+}
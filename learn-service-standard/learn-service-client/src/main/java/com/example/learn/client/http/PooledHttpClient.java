@@ -0,0 +1,107 @@
+package com.example.learn.client.http;
+
+import com.example.learn.client.config.FeignPoolProperties;
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Protocol;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 带连接池的 Feign HTTP 客户端，每个 Feign 客户端一个实例，随 Feign 子容器关闭
+ * 指标 learn.client.http.connections，标签 client/state
+ * APACHE: leased(使用中) available(空闲) pending(等待连接的请求) max(上限)
+ * OKHTTP: active(使用中) idle(空闲)
+ */
+public class PooledHttpClient implements Closeable {
+    public static final String CONNECTIONS_METRIC = "learn.client.http.connections";
+
+    private final Client client;
+    private final Closeable resource;
+    private final MeterRegistry registry;
+    private final List<Meter> meters = new ArrayList<>();
+
+    public PooledHttpClient(String name, FeignPoolProperties.Pool pool, MeterRegistry registry) {
+        this.registry = registry;
+        if (pool.getBackend() == FeignPoolProperties.Backend.OKHTTP) {
+            okhttp3.OkHttpClient okHttpClient = okHttp(name, pool);
+            this.client = new feign.okhttp.OkHttpClient(okHttpClient);
+            this.resource = () -> {
+                okHttpClient.dispatcher().executorService().shutdown();
+                okHttpClient.connectionPool().evictAll();
+            };
+        } else {
+            CloseableHttpClient httpClient = apache(name, pool);
+            this.client = new ApacheHttpClient(httpClient);
+            this.resource = httpClient;
+        }
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    @Override
+    public void close() throws IOException {
+        meters.forEach(registry::remove);
+        resource.close();
+    }
+
+    private CloseableHttpClient apache(String name, FeignPoolProperties.Pool pool) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(pool.getTimeToLive(), TimeUnit.MILLISECONDS);
+        manager.setMaxTotal(pool.getMaxConnections());
+        manager.setDefaultMaxPerRoute(pool.getMaxConnectionsPerRoute());
+        gauge(name, "leased", () -> manager.getTotalStats().getLeased());
+        gauge(name, "available", () -> manager.getTotalStats().getAvailable());
+        gauge(name, "pending", () -> manager.getTotalStats().getPending());
+        gauge(name, "max", () -> manager.getTotalStats().getMax());
+        return HttpClients.custom()
+                .setConnectionManager(manager)
+                // 后台线程定期回收过期与空闲连接，避免复用已被服务端关闭的连接
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? duration : pool.getKeepAlive();
+                })
+                .disableCookieManagement()
+                .build();
+    }
+
+    private okhttp3.OkHttpClient okHttp(String name, FeignPoolProperties.Pool pool) {
+        // OkHttp 没有总连接数上限，maxConnections 作为最大空闲连接数；空闲回收与 keep-alive 共用较小的时间
+        // 同步调用不受 Dispatcher 的按主机限制，maxConnectionsPerRoute、timeToLive 在这里不生效
+        ConnectionPool connectionPool = new ConnectionPool(pool.getMaxConnections(),
+                Math.min(pool.getIdleTimeout(), pool.getKeepAlive()), TimeUnit.MILLISECONDS);
+        gauge(name, "active", () -> connectionPool.connectionCount() - connectionPool.idleConnectionCount());
+        gauge(name, "idle", connectionPool::idleConnectionCount);
+        return new okhttp3.OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                // HTTP/2 通过 TLS ALPN 协商，服务端不支持或明文连接时使用 HTTP/1.1
+                .protocols(pool.isHttp2() ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    private void gauge(String name, String state, Supplier<Number> value) {
+        meters.add(Gauge.builder(CONNECTIONS_METRIC, value)
+                .tag("client", name)
+                .tag("state", state)
+                .register(registry));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.learn.client.stub;
+
+import com.example.learn.client.model.demo.DemoRequest;
+import com.example.learn.client.model.demo.DemoResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * demo-service 的本地桩，仅在 demo-stub profile 下启用，配合 application-demo-stub.yml 把 demo-service 指向本服务
+ * 单个与批量接口都原样返回请求的id，便于在没有下游的环境中联调攒批与合并逻辑
+ */
+@Profile("demo-stub")
+@RestController
+public class DemoServiceStub {
+    @PostMapping("/demo-service/v1/demo/query")
+    public DemoResponse querySomething(@RequestBody DemoRequest request) {
+        return toResponse(request);
+    }
+
+    @PostMapping("/demo-service/v1/demo/query/batch")
+    public List<DemoResponse> querySomethingBatch(@RequestBody List<DemoRequest> requests) {
+        return requests.stream().map(DemoServiceStub::toResponse).collect(Collectors.toList());
+    }
+
+    private static DemoResponse toResponse(DemoRequest request) {
+        DemoResponse response = new DemoResponse();
+        response.setId(request.getId());
+        return response;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD 自适应并发限制
+ * 调用成功且耗时未超过阈值时，若并发已接近上限则上限 +1(加性增)；超时、失败或耗时超过阈值时上限乘以 backoffRatio(乘性减)
+ * 下游变慢时允许的并发随之收缩，多出的请求在发出前直接拒绝，而不是堆积在线程上等待
+ * 指标：learn.client.limiter.limit 当前上限，learn.client.limiter.in-flight 进行中的调用数
+ */
+public class AdaptiveLimiter {
+    public static final String LIMIT_METRIC = "learn.client.limiter.limit";
+    public static final String IN_FLIGHT_METRIC = "learn.client.limiter.in-flight";
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    /**
+     * @param name 指标中的 name 标签
+     * @param initialLimit 初始并发上限
+     * @param minLimit 并发上限的下限
+     * @param maxLimit 并发上限的上限
+     * @param backoffRatio 出现丢弃信号时的收缩比例(0~1)
+     * @param latencyThresholdMillis 耗时超过该值视为过载信号
+     * @param registry 指标注册表
+     */
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                           long latencyThresholdMillis, MeterRegistry registry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder(LIMIT_METRIC, this, AdaptiveLimiter::getLimit).tag("name", name).register(registry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get).tag("name", name).register(registry);
+    }
+
+    /**
+     * 尝试获取许可
+     * @return 许可，超过当前上限时返回null
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long latencyNanos, boolean dropped) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightAtStart * 2 >= limit) {
+            // 只有并发确实用到一半以上时才增长，避免空闲时上限无限上涨
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * 一次调用的许可，调用结束后必须且只能调用一次 onSuccess / onDropped / onIgnore
+     */
+    public class Permit {
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        // 调用成功，按耗时调整上限
+        public void onSuccess() {
+            inFlight.decrementAndGet();
+            onSample(inFlightAtStart, System.nanoTime() - startNanos, false);
+        }
+
+        // 超时、连接失败、5xx 等过载信号，收缩上限
+        public void onDropped() {
+            inFlight.decrementAndGet();
+            onSample(inFlightAtStart, System.nanoTime() - startNanos, true);
+        }
+
+        // 与下游负载无关的结果(如 4xx、调用未发出)，只释放不调整
+        public void onIgnore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.learn.client.support;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * 出站调用保护：自适应并发限制 + 可选熔断
+ * 被拒绝的调用不会发出，直接抛出 CallRejectedException
+ * 指标：learn.client.limiter.rejected 按 reason=limit/circuit-open 计数
+ */
+public class CallGuard {
+    public static final String REJECTED_METRIC = "learn.client.limiter.rejected";
+
+    private final String name;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final Counter limitRejected;
+    private final Counter circuitRejected;
+
+    /**
+     * @param name 下游名称，用于指标与异常信息
+     * @param limiter 并发限制，null 表示不限制
+     * @param breaker 熔断器，null 表示不熔断
+     * @param registry 指标注册表
+     */
+    public CallGuard(String name, AdaptiveLimiter limiter, CircuitBreaker breaker, MeterRegistry registry) {
+        this.name = name;
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.limitRejected = Counter.builder(REJECTED_METRIC).tag("name", name).tag("reason", "limit").register(registry);
+        this.circuitRejected = Counter.builder(REJECTED_METRIC).tag("name", name).tag("reason", "circuit-open").register(registry);
+    }
+
+    public <T> T call(Supplier<T> call) {
+        AdaptiveLimiter.Permit permit = null;
+        if (limiter != null) {
+            permit = limiter.tryAcquire();
+            if (permit == null) {
+                limitRejected.increment();
+                throw new CallRejectedException(name + " concurrency limit exceeded, limit: " + limiter.getLimit());
+            }
+        }
+        if (breaker != null && !breaker.tryAcquire()) {
+            if (permit != null) {
+                permit.onIgnore();
+            }
+            circuitRejected.increment();
+            throw new CallRejectedException(name + " circuit breaker is open");
+        }
+        try {
+            T result = call.get();
+            if (permit != null) {
+                permit.onSuccess();
+            }
+            if (breaker != null) {
+                breaker.onSuccess();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            boolean overload = isOverload(e);
+            if (permit != null) {
+                if (overload) {
+                    permit.onDropped();
+                } else {
+                    permit.onIgnore();
+                }
+            }
+            if (breaker != null) {
+                if (overload) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+            }
+            throw e;
+        } catch (Throwable t) {
+            // Error 或绕过编译检查抛出的受检异常：结果未知，只归还许可和试探名额
+            if (permit != null) {
+                permit.onIgnore();
+            }
+            if (breaker != null) {
+                breaker.onIgnore();
+            }
+            throw t;
+        }
+    }
+
+    // 4xx 是请求本身的问题，不代表下游过载
+    private static boolean isOverload(RuntimeException e) {
+        if (e instanceof FeignException) {
+            int status = ((FeignException) e).status();
+            return status < 400 || status >= 500;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.learn.client.support;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 调用在发出前被拒绝(并发超过限制或熔断打开)
+ * 继承 RejectedExecutionException，调用方可以与线程池满一样按"下游繁忙"处理
+ */
+public class CallRejectedException extends RejectedExecutionException {
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
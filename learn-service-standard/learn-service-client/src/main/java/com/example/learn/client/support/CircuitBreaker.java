@@ -0,0 +1,136 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 按最近 N 次调用失败率判断的熔断器
+ * CLOSED: 正常放行，窗口内调用数达到 minimumCalls 且失败率达到阈值时打开
+ * OPEN: 全部拒绝，openDuration 之后进入 HALF_OPEN
+ * HALF_OPEN: 只放行 halfOpenCalls 个试探调用，全部成功则关闭，任一失败则重新打开
+ * 指标：learn.client.circuit.state 0=CLOSED 1=OPEN 2=HALF_OPEN
+ */
+public class CircuitBreaker {
+    public static final String STATE_METRIC = "learn.client.circuit.state";
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    // 最近 N 次调用结果的环形缓冲
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param name 指标中的 name 标签
+     * @param failureRateThreshold 失败率阈值(百分比)
+     * @param slidingWindowSize 统计最近多少次调用
+     * @param minimumCalls 窗口内至少多少次调用才计算失败率
+     * @param openDurationMillis 打开状态持续时间(毫秒)
+     * @param halfOpenCalls 半开状态的试探调用数
+     * @param registry 指标注册表
+     */
+    public CircuitBreaker(String name, int failureRateThreshold, int slidingWindowSize, int minimumCalls,
+                          long openDurationMillis, int halfOpenCalls, MeterRegistry registry) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[slidingWindowSize];
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationNanos = openDurationMillis * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+        Gauge.builder(STATE_METRIC, this, breaker -> breaker.getState().ordinal()).tag("name", name).register(registry);
+    }
+
+    /**
+     * 是否允许发出调用，允许后必须调用 onSuccess / onFailure / onIgnore 之一
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermitted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+            open();
+        }
+    }
+
+    // 调用未发出，归还半开状态的试探名额
+    public synchronized void onIgnore() {
+        if (state == State.HALF_OPEN && halfOpenPermitted > 0) {
+            halfOpenPermitted--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * 对冲请求，只能用于幂等调用
+ * 首次调用在对冲延迟内没有返回时再发起一次相同的调用，先成功的结果生效，其余调用被取消
+ * 对冲延迟取最近调用耗时的指定百分位(不低于 minDelay)，这样只有落在长尾里的调用才会被对冲
+ * 预算：每个请求存入 budgetRatio 个令牌，每次对冲消耗 1 个，令牌不足时不对冲，额外负载因此不超过约 budgetRatio
+ * 指标：learn.client.hedge 按 outcome=sent(已对冲)/won(对冲先返回)/no-budget(预算不足) 计数，learn.client.hedge.delay 当前对冲延迟(毫秒)
+ */
+public class Hedger {
+    public static final String HEDGE_METRIC = "learn.client.hedge";
+    public static final String DELAY_METRIC = "learn.client.hedge.delay";
+
+    private final ScheduledExecutorService timer;
+    private final LatencyWindow latencies;
+    private final double percentile;
+    private final long minDelayMillis;
+    private final Budget budget;
+    private final Counter sent;
+    private final Counter won;
+    private final Counter noBudget;
+
+    /**
+     * @param name 指标中的 name 标签
+     * @param timer 触发对冲的调度器
+     * @param percentile 对冲延迟取的百分位(0~100)
+     * @param minDelayMillis 对冲延迟的下限(毫秒)，样本不足时也使用该值
+     * @param budgetRatio 对冲请求占总请求的比例上限
+     * @param maxBudget 令牌上限，决定突发时最多连续对冲多少次
+     * @param registry 指标注册表
+     */
+    public Hedger(String name, ScheduledExecutorService timer, double percentile, long minDelayMillis,
+                  double budgetRatio, int maxBudget, MeterRegistry registry) {
+        this.timer = timer;
+        this.latencies = new LatencyWindow(1024);
+        this.percentile = percentile;
+        this.minDelayMillis = minDelayMillis;
+        this.budget = new Budget(budgetRatio, maxBudget);
+        this.sent = Counter.builder(HEDGE_METRIC).tag("name", name).tag("outcome", "sent").register(registry);
+        this.won = Counter.builder(HEDGE_METRIC).tag("name", name).tag("outcome", "won").register(registry);
+        this.noBudget = Counter.builder(HEDGE_METRIC).tag("name", name).tag("outcome", "no-budget").register(registry);
+        Gauge.builder(DELAY_METRIC, this, Hedger::delayMillis).tag("name", name).register(registry);
+    }
+
+    /**
+     * 发起调用，必要时对冲
+     * @param attempt 发起一次调用，参数为序号(0 首次调用，1 对冲调用)，返回的 future 被取消时应尽量放弃该次调用
+     * @return 先成功的结果；全部失败时为最后一个失败的异常
+     */
+    public <T> CompletableFuture<T> execute(IntFunction<CompletableFuture<T>> attempt) {
+        budget.deposit();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        start(attempt, 0, result, attempts, pending);
+        ScheduledFuture<?> hedge = timer.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                noBudget.increment();
+                return;
+            }
+            sent.increment();
+            pending.incrementAndGet();
+            start(attempt, 1, result, attempts, pending);
+        }, delayMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((value, e) -> {
+            hedge.cancel(false);
+            attempts.forEach(f -> f.cancel(true));
+        });
+        return result;
+    }
+
+    /**
+     * 当前对冲延迟(毫秒)
+     */
+    public long delayMillis() {
+        return Math.max(minDelayMillis, latencies.percentile(percentile));
+    }
+
+    private <T> void start(IntFunction<CompletableFuture<T>> attempt, int index, CompletableFuture<T> result,
+                           List<CompletableFuture<T>> attempts, AtomicInteger pending) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = attempt.apply(index);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        attempts.add(future);
+        if (result.isDone()) {
+            future.cancel(true);
+            return;
+        }
+        future.whenComplete((value, e) -> {
+            if (e == null) {
+                latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (result.complete(value) && index > 0) {
+                    won.increment();
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                // 只有所有调用都失败才失败；对冲尚未发出时 pending 为0，首次调用的失败直接返回
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 最近 N 次成功调用的耗时
+     */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int index;
+        private int count;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void record(long millis) {
+            samples[index] = millis;
+            index = (index + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+        }
+
+        private synchronized long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
+    /**
+     * 对冲预算(令牌桶，按请求数而不是时间补充)
+     */
+    private static class Budget {
+        private final double ratio;
+        private final double max;
+        private double tokens;
+
+        private Budget(double ratio, int max) {
+            this.ratio = ratio;
+            this.max = max;
+        }
+
+        private synchronized void deposit() {
+            tokens = Math.min(max, tokens + ratio);
+        }
+
+        private synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
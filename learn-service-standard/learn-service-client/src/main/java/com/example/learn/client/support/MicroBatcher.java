@@ -0,0 +1,139 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 请求攒批
+ * 第一个请求到达后开始计时，达到 maxSize 或等待满 window 时把已收集的请求合成一次批量调用
+ * 批量调用返回的结果按下标与请求一一对应，再分发给各自的调用方；批量调用失败时该批所有请求都以同一异常失败
+ * 指标：learn.client.batch.size 每批实际请求数
+ */
+@Slf4j
+public class MicroBatcher<Q, R> {
+    public static final String BATCH_SIZE_METRIC = "learn.client.batch.size";
+
+    private final Function<List<Q>, List<R>> bulkCall;
+    private final int maxSize;
+    private final long windowMillis;
+    private final ScheduledExecutorService timer;
+    private final Executor executor;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private List<Pending<Q, R>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param name 指标中的 name 标签
+     * @param bulkCall 批量调用，返回结果需与入参等长且顺序一致
+     * @param maxSize 每批最大请求数
+     * @param windowMillis 攒批的最长等待时间(毫秒)
+     * @param timer 触发按时间刷出的调度器
+     * @param executor 执行批量调用的线程池
+     * @param registry 指标注册表
+     */
+    public MicroBatcher(String name, Function<List<Q>, List<R>> bulkCall, int maxSize, long windowMillis,
+                        ScheduledExecutorService timer, Executor executor, MeterRegistry registry) {
+        this.bulkCall = bulkCall;
+        this.maxSize = maxSize;
+        this.windowMillis = windowMillis;
+        this.timer = timer;
+        this.executor = executor;
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC).tag("name", name).register(registry);
+    }
+
+    /**
+     * 加入当前批次
+     * @param request 请求
+     * @return 该请求对应的结果
+     */
+    public CompletableFuture<R> submit(Q request) {
+        Pending<Q, R> item = new Pending<>(request);
+        List<Pending<Q, R>> full = null;
+        synchronized (lock) {
+            pending.add(item);
+            if (pending.size() >= maxSize) {
+                full = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return item.future;
+    }
+
+    /**
+     * 立即发送已收集的请求
+     */
+    public void flush() {
+        List<Pending<Q, R>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        dispatch(batch);
+    }
+
+    // 需持有 lock
+    private List<Pending<Q, R>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Pending<Q, R>> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void dispatch(List<Pending<Q, R>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> call(batch));
+        } catch (RuntimeException e) {
+            // 线程池已满，整批失败而不是阻塞调用方
+            batch.forEach(item -> item.future.completeExceptionally(e));
+        }
+    }
+
+    private void call(List<Pending<Q, R>> batch) {
+        batchSizes.record(batch.size());
+        List<Q> requests = new ArrayList<>(batch.size());
+        batch.forEach(item -> requests.add(item.request));
+        try {
+            List<R> responses = bulkCall.apply(requests);
+            if (responses == null || responses.size() != batch.size()) {
+                throw new IllegalStateException("Bulk response size mismatch, expected: " + batch.size()
+                        + ", actual: " + (responses == null ? null : responses.size()));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(responses.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to execute bulk call, size: {}", batch.size(), e);
+            batch.forEach(item -> item.future.completeExceptionally(e));
+        }
+    }
+
+    private static class Pending<Q, R> {
+        private final Q request;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private Pending(Q request) {
+            this.request = request;
+        }
+    }
+}
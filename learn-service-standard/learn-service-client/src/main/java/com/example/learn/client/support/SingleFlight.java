@@ -0,0 +1,74 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 进行中请求合并(single-flight)
+ * 相同key的并发调用只发起一次，其余调用共享这一次的结果或异常；调用完成后立即移出，之后的调用会重新发起
+ * key 需要正确实现 equals/hashCode，且在调用进行中不能被修改
+ * 指标：learn.client.coalescing 按 role=leader(实际发起)/follower(被合并) 计数，合并率 = follower / (leader + follower)
+ */
+public class SingleFlight<K, V> {
+    public static final String COALESCING_METRIC = "learn.client.coalescing";
+    public static final String IN_FLIGHT_METRIC = "learn.client.coalescing.in-flight";
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry registry) {
+        leaders = Counter.builder(COALESCING_METRIC).tag("name", name).tag("role", "leader").register(registry);
+        followers = Counter.builder(COALESCING_METRIC).tag("name", name).tag("role", "follower").register(registry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, Map::size).tag("name", name).register(registry);
+    }
+
+    /**
+     * 执行或加入进行中的调用
+     * @param key 合并依据
+     * @param call 实际调用，只有 leader 会执行；同步抛出的任何异常(含 Error)同样会共享给 follower
+     * @return 调用结果，每个调用方拿到独立的副本，取消或完成副本不影响其他调用方
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.increment();
+            return existing.copy();
+        }
+        leaders.increment();
+        CompletableFuture<V> source;
+        try {
+            source = call.get();
+            if (source == null) {
+                source = CompletableFuture.failedFuture(new NullPointerException("call returned null future"));
+            }
+        } catch (Throwable e) {
+            // 包括 Error 和被偷偷抛出的受检异常，否则key会一直留在 inFlight 中，之后的调用全部挂起
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, e) -> {
+            // 先移出再完成，保证完成之后到达的调用会重新发起而不是拿到旧结果
+            inFlight.remove(key, flight);
+            if (e == null) {
+                flight.complete(value);
+            } else {
+                flight.completeExceptionally(e);
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * 当前进行中的调用数
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdaptiveLimiterTest {
+
+    @Test
+    void rejectsBeyondCurrentLimit() {
+        AdaptiveLimiter limiter = limiter(2);
+
+        AdaptiveLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveLimiter.Permit second = limiter.tryAcquire();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        first.onIgnore();
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void droppedCallShrinksLimitMultiplicatively() {
+        AdaptiveLimiter limiter = limiter(10);
+
+        limiter.tryAcquire().onDropped();
+
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void limitNeverDropsBelowMinimum() {
+        AdaptiveLimiter limiter = limiter(2);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire().onDropped();
+        }
+
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void successUnderLoadGrowsLimitAdditively() {
+        AdaptiveLimiter limiter = limiter(4);
+        AdaptiveLimiter.Permit[] permits = new AdaptiveLimiter.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.tryAcquire();
+        }
+
+        permits[3].onSuccess();
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void successWhileIdleKeepsLimit() {
+        AdaptiveLimiter limiter = limiter(10);
+
+        limiter.tryAcquire().onSuccess();
+        limiter.tryAcquire().onIgnore();
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static AdaptiveLimiter limiter(int initialLimit) {
+        return new AdaptiveLimiter("test", initialLimit, 1, 100, 0.5, 60000, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = breaker(60000);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker(60000);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            if (i % 2 == 0) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulProbes() {
+        CircuitBreaker breaker = opened(breaker(0));
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenReopensOnFailedProbe() {
+        CircuitBreaker breaker = opened(breaker(0));
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void ignoredProbeReturnsItsSlot() {
+        CircuitBreaker breaker = opened(breaker(0));
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onIgnore();
+
+        assertTrue(breaker.tryAcquire());
+    }
+
+    // 50% 失败率阈值，窗口 10，至少 4 次调用，1 个试探调用
+    private static CircuitBreaker breaker(long openDurationMillis) {
+        return new CircuitBreaker("test", 50, 10, 4, openDurationMillis, 1, new SimpleMeterRegistry());
+    }
+
+    private static CircuitBreaker opened(CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        return breaker;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicroBatcherTest {
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void fullBatchIsSentImmediately() {
+        MicroBatcher<Integer, String> batcher = batcher(this::echo, 3, 60000, Runnable::run);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+        assertFalse(first.isDone());
+        CompletableFuture<String> third = batcher.submit(3);
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3)), batches);
+        assertEquals("r1", first.join());
+        assertEquals("r2", second.join());
+        assertEquals("r3", third.join());
+    }
+
+    @Test
+    void partialBatchIsSentAfterWindow() throws Exception {
+        MicroBatcher<Integer, String> batcher = batcher(this::echo, 10, 20, Runnable::run);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertEquals("r1", first.get(1, TimeUnit.SECONDS));
+        assertEquals("r2", second.get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Arrays.asList(1, 2)), batches);
+    }
+
+    @Test
+    void sizeMismatchFailsWholeBatch() {
+        MicroBatcher<Integer, String> batcher = batcher(requests -> Collections.singletonList("only"), 2, 60000, Runnable::run);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        CompletableFuture<String> second = batcher.submit(2);
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+    }
+
+    @Test
+    void rejectedBatchFailsInsteadOfBlocking() {
+        MicroBatcher<Integer, String> batcher = batcher(this::echo, 1, 60000, r -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        assertThrows(CompletionException.class, () -> batcher.submit(1).join());
+    }
+
+    @Test
+    void explicitFlushSendsCollectedRequests() {
+        MicroBatcher<Integer, String> batcher = batcher(this::echo, 10, 60000, Runnable::run);
+
+        CompletableFuture<String> first = batcher.submit(1);
+        batcher.flush();
+        batcher.flush();
+
+        assertEquals("r1", first.join());
+        assertEquals(1, batches.size());
+    }
+
+    private List<String> echo(List<Integer> requests) {
+        batches.add(requests);
+        return requests.stream().map(r -> "r" + r).collect(Collectors.toList());
+    }
+
+    private MicroBatcher<Integer, String> batcher(Function<List<Integer>, List<String>> bulkCall, int maxSize,
+                                                  long windowMillis, Executor executor) {
+        return new MicroBatcher<>("test", bulkCall, maxSize, windowMillis, timer, executor, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.learn.client.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private final SingleFlight<String, String> flights = new SingleFlight<>("test", new SimpleMeterRegistry());
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void concurrentCallsForSameKeyShareOneCall() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = flights.execute("k", () -> call(source));
+        CompletableFuture<String> follower = flights.execute("k", () -> call(source));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, flights.inFlight());
+        source.complete("v");
+        assertEquals("v", leader.join());
+        assertEquals("v", follower.join());
+        assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        flights.execute("a", () -> call(new CompletableFuture<>()));
+        flights.execute("b", () -> call(new CompletableFuture<>()));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void callAfterCompletionStartsAgain() {
+        flights.execute("k", () -> call(CompletableFuture.completedFuture("first")));
+
+        assertEquals("second", flights.execute("k", () -> call(CompletableFuture.completedFuture("second"))).join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void failureIsSharedAndKeyIsReleased() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> leader = flights.execute("k", () -> call(source));
+        CompletableFuture<String> follower = flights.execute("k", () -> call(source));
+
+        source.completeExceptionally(new IllegalStateException("down"));
+
+        assertThrows(CompletionException.class, leader::join);
+        assertThrows(CompletionException.class, follower::join);
+        assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    void synchronousThrowDoesNotLeaveKeyInFlight() {
+        CompletableFuture<String> result = flights.execute("k", () -> {
+            throw new AssertionError("boom");
+        });
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, flights.inFlight());
+    }
+
+    @Test
+    void cancellingOneCopyDoesNotAffectOthers() {
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> leader = flights.execute("k", () -> call(source));
+        CompletableFuture<String> follower = flights.execute("k", () -> call(source));
+
+        follower.cancel(true);
+        source.complete("v");
+
+        assertFalse(leader.isCancelled());
+        assertEquals("v", leader.join());
+    }
+
+    private CompletableFuture<String> call(CompletableFuture<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.learn.domain.batch;
+
+import com.example.learn.domain.cache.NearCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量构建器公共部分：记录命令顺序，执行后统一失效近端缓存
+ * @param <A> 具体客户端的命令类型
+ */
+abstract class AbstractCacheBatch<A> implements CacheBatch {
+    private final NearCache nearCache;
+    private final List<Op<A>> ops = new ArrayList<>();
+
+    protected AbstractCacheBatch(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 添加一条命令
+     * @param action 为null时不发送命令，结果直接视为成功(值为true)
+     */
+    protected CacheBatch add(String key, String field, boolean write, A action) {
+        ops.add(new Op<>(key, field, write, action));
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return ops.size();
+    }
+
+    @Override
+    public List<KeyResult<Object>> execute() {
+        if (ops.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Op<A>> snapshot = new ArrayList<>(ops);
+        ops.clear();
+        try {
+            return doExecute(snapshot);
+        } finally {
+            invalidate(snapshot);
+        }
+    }
+
+    /**
+     * 一次性发送所有命令，返回结果需与 ops 顺序一一对应
+     */
+    protected abstract List<KeyResult<Object>> doExecute(List<Op<A>> ops);
+
+    private void invalidate(List<Op<A>> ops) {
+        Set<String> keys = new LinkedHashSet<>();
+        Map<String, Set<String>> fields = new LinkedHashMap<>();
+        for (Op<A> op : ops) {
+            if (!op.isWrite()) {
+                continue;
+            }
+            if (op.getField() == null) {
+                keys.add(op.getKey());
+            } else {
+                fields.computeIfAbsent(op.getKey(), k -> new LinkedHashSet<>()).add(op.getField());
+            }
+        }
+        if (!keys.isEmpty()) {
+            nearCache.invalidate(keys.toArray(new String[0]));
+        }
+        fields.forEach((key, f) -> nearCache.invalidateFields(key, f.toArray()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    protected static class Op<A> {
+        private final String key;
+        private final String field;
+        private final boolean write;
+        private final A action;
+    }
+}
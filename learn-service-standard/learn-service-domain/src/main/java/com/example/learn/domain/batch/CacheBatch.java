@@ -0,0 +1,52 @@
+package com.example.learn.domain.batch;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量操作构建器
+ * 先收集多条命令，execute 时一次性发送(一次网络往返)，结果按添加顺序返回
+ */
+public interface CacheBatch {
+
+    CacheBatch get(String key);
+
+    CacheBatch set(String key, Object value);
+
+    /**
+     * @param time 时间 小于等于0时不设置过期时间
+     */
+    CacheBatch set(String key, Object value, long time, TimeUnit unit);
+
+    CacheBatch hget(String key, String field);
+
+    CacheBatch hset(String key, String field, Object value);
+
+    /**
+     * @param time 时间 小于等于0时不发送命令，直接视为成功
+     */
+    CacheBatch expire(String key, long time, TimeUnit unit);
+
+    CacheBatch del(String key);
+
+    /**
+     * 递增，结果为递增后的值
+     */
+    CacheBatch incr(String key, long delta);
+
+    /**
+     * Hash项递增，结果为递增后的值
+     */
+    CacheBatch hincr(String key, String field, long delta);
+
+    /**
+     * 当前已收集的命令数
+     */
+    int size();
+
+    /**
+     * 发送所有已收集的命令
+     * @return 每条命令的结果，顺序与添加顺序一致，单条失败不影响其他命令
+     */
+    List<KeyResult<Object>> execute();
+}
@@ -0,0 +1,101 @@
+package com.example.learn.domain.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+
+/**
+ * 本地缓冲的后台刷新(写缓冲计数器、延迟写入队列)
+ * 单个守护线程按固定间隔刷新，也可以提前触发；关闭时停止定时刷新，再在调用线程上同步刷新剩余数据
+ * 持有缓冲的组件在 @PostConstruct 中创建、@PreDestroy 中关闭，这些组件先于 RedisTemplate 销毁(依赖顺序)，关闭时仍可写入Redis
+ */
+@Slf4j
+public class FlushScheduler {
+    private final String name;
+    private final long flushInterval;
+    private final IntSupplier flush;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * 创建并启动定时刷新
+     * @param name 名称，用于线程名(cache-名称-flush)和日志
+     * @param flushInterval 刷新间隔(毫秒)
+     * @param flush 刷新全部缓冲数据，返回刷新失败(留待重试)的个数
+     */
+    public FlushScheduler(String name, long flushInterval, IntSupplier flush) {
+        this.name = name;
+        this.flushInterval = flushInterval;
+        this.flush = flush;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "cache-" + name + "-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在刷新线程上尽快执行一次刷新
+     * @return 是否已提交，关闭后返回false
+     */
+    public boolean trigger() {
+        if (scheduler.isShutdown()) {
+            return false;
+        }
+        try {
+            scheduler.execute(this::flushQuietly);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 检查之后被关闭
+            return false;
+        }
+    }
+
+    public boolean isShutdown() {
+        return scheduler.isShutdown();
+    }
+
+    /**
+     * 停止定时刷新，等待执行中的刷新结束后同步刷新剩余数据
+     * @param retries 刷新失败的重试次数
+     * @return 是否已全部刷新
+     * @throws InterruptedException 中断异常
+     */
+    public boolean shutdown(int retries) throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(flushInterval * 2, TimeUnit.MILLISECONDS);
+        for (int i = 0; i <= retries; i++) {
+            if (flush.getAsInt() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把 size 个待刷新项按 batchSize 分段，依次刷新
+     * @param size 待刷新项个数
+     * @param batchSize 每段(每次管道)的最大个数
+     * @param flushRange 刷新 [from, to) 区间，返回失败个数
+     * @return 失败个数之和
+     */
+    public static int inBatches(int size, int batchSize, IntBinaryOperator flushRange) {
+        int failed = 0;
+        for (int from = 0; from < size; from += batchSize) {
+            failed += flushRange.applyAsInt(from, Math.min(size, from + batchSize));
+        }
+        return failed;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush.getAsInt();
+        } catch (Exception e) {
+            log.error("Failed to flush {} buffer", name, e);
+        }
+    }
+}
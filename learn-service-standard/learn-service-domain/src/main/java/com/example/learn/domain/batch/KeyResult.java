@@ -0,0 +1,36 @@
+package com.example.learn.domain.batch;
+
+import lombok.Getter;
+
+/**
+ * 批量操作中单个key的执行结果
+ * 成功时 value 为命令返回值，失败时 error 为该条命令的异常，互不影响
+ */
+@Getter
+public class KeyResult<T> {
+    private final String key;
+    private final String field;
+    private final T value;
+    private final Throwable error;
+
+    private KeyResult(String key, String field, T value, Throwable error) {
+        this.key = key;
+        this.field = field;
+        this.value = value;
+        this.error = error;
+    }
+
+    // 成功结果
+    public static <T> KeyResult<T> success(String key, String field, T value) {
+        return new KeyResult<>(key, field, value, null);
+    }
+
+    // 失败结果
+    public static <T> KeyResult<T> failure(String key, String field, Throwable error) {
+        return new KeyResult<>(key, field, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.learn.domain.batch;
+
+import com.example.learn.domain.cache.NearCache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于 RedisTemplate 管道(pipeline)的批量构建器
+ * 注意：只使用有返回值的命令(如用 HSET 代替 HMSET)，保证管道结果与命令一一对应
+ */
+public class RedisTemplateBatch extends AbstractCacheBatch<Consumer<RedisOperations<String, Object>>> {
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public RedisTemplateBatch(RedisTemplate<String, Object> redisTemplate, NearCache nearCache) {
+        super(nearCache);
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public CacheBatch get(String key) {
+        return add(key, null, false, ops -> ops.opsForValue().get(key));
+    }
+
+    @Override
+    public CacheBatch set(String key, Object value) {
+        return add(key, null, true, ops -> ops.opsForValue().set(key, value));
+    }
+
+    @Override
+    public CacheBatch set(String key, Object value, long time, TimeUnit unit) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return add(key, null, true, ops -> ops.opsForValue().set(key, value, time, unit));
+    }
+
+    @Override
+    public CacheBatch hget(String key, String field) {
+        return add(key, field, false, ops -> ops.opsForHash().get(key, field));
+    }
+
+    @Override
+    public CacheBatch hset(String key, String field, Object value) {
+        return add(key, field, true, ops -> ops.opsForHash().put(key, field, value));
+    }
+
+    @Override
+    public CacheBatch expire(String key, long time, TimeUnit unit) {
+        return add(key, null, false, time > 0 ? ops -> ops.expire(key, time, unit) : null);
+    }
+
+    @Override
+    public CacheBatch del(String key) {
+        return add(key, null, true, ops -> ops.delete(key));
+    }
+
+    @Override
+    public CacheBatch incr(String key, long delta) {
+        return add(key, null, true, ops -> ops.opsForValue().increment(key, delta));
+    }
+
+    @Override
+    public CacheBatch hincr(String key, String field, long delta) {
+        return add(key, field, true, ops -> ops.opsForHash().increment(key, field, delta));
+    }
+
+    @Override
+    protected List<KeyResult<Object>> doExecute(List<Op<Consumer<RedisOperations<String, Object>>>> ops) {
+        List<Object> raw;
+        Throwable batchError = null;
+        try {
+            raw = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, Object> redisOps = (RedisOperations<String, Object>) operations;
+                    for (Op<Consumer<RedisOperations<String, Object>>> op : ops) {
+                        if (op.getAction() != null) {
+                            op.getAction().accept(redisOps);
+                        }
+                    }
+                    return null;
+                }
+            });
+        } catch (RedisPipelineException e) {
+            // 部分命令失败时，异常对象会出现在对应位置
+            raw = e.getPipelineResult();
+        } catch (Exception e) {
+            raw = null;
+            batchError = e;
+        }
+
+        long sent = ops.stream().filter(op -> op.getAction() != null).count();
+        if (batchError == null && raw.size() != sent) {
+            batchError = new IllegalStateException("Pipeline returned " + raw.size() + " results for " + sent + " commands");
+        }
+
+        List<KeyResult<Object>> results = new ArrayList<>(ops.size());
+        int index = 0;
+        for (Op<Consumer<RedisOperations<String, Object>>> op : ops) {
+            if (op.getAction() == null) {
+                results.add(KeyResult.success(op.getKey(), op.getField(), Boolean.TRUE));
+            } else if (batchError != null) {
+                results.add(KeyResult.failure(op.getKey(), op.getField(), batchError));
+            } else {
+                Object value = raw.get(index++);
+                results.add(value instanceof Throwable
+                        ? KeyResult.failure(op.getKey(), op.getField(), (Throwable) value)
+                        : KeyResult.success(op.getKey(), op.getField(), value));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.learn.domain.batch;
+
+import com.example.learn.domain.cache.NearCache;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 基于 Redisson RBatch 的批量构建器
+ * 每条命令对应一个 RFuture，执行后逐个读取，单条失败不影响其他命令
+ */
+public class RedissonBatch extends AbstractCacheBatch<Function<RBatch, RFuture<?>>> {
+    private final RedissonClient redissonClient;
+    private final BatchOptions options;
+    // 读取普通值使用的编解码器
+    private final Codec readCodec;
+
+    public RedissonBatch(RedissonClient redissonClient, NearCache nearCache) {
+        this(redissonClient, nearCache, BatchOptions.defaults());
+    }
+
+    public RedissonBatch(RedissonClient redissonClient, NearCache nearCache, BatchOptions options) {
+        this(redissonClient, nearCache, options, redissonClient.getConfig().getCodec());
+    }
+
+    /**
+     * @param readCodec 读取普通值使用的编解码器(如识别分块清单的 ChunkedValues.readCodec)
+     */
+    public RedissonBatch(RedissonClient redissonClient, NearCache nearCache, Codec readCodec) {
+        this(redissonClient, nearCache, BatchOptions.defaults(), readCodec);
+    }
+
+    public RedissonBatch(RedissonClient redissonClient, NearCache nearCache, BatchOptions options, Codec readCodec) {
+        super(nearCache);
+        this.redissonClient = redissonClient;
+        this.options = options;
+        this.readCodec = readCodec;
+    }
+
+    @Override
+    public CacheBatch get(String key) {
+        return add(key, null, false, batch -> batch.getBucket(key, readCodec).getAsync());
+    }
+
+    @Override
+    public CacheBatch set(String key, Object value) {
+        return add(key, null, true, batch -> batch.getBucket(key).setAsync(value));
+    }
+
+    @Override
+    public CacheBatch set(String key, Object value, long time, TimeUnit unit) {
+        if (time <= 0) {
+            return set(key, value);
+        }
+        return add(key, null, true, batch -> batch.getBucket(key).setAsync(value, time, unit));
+    }
+
+    @Override
+    public CacheBatch hget(String key, String field) {
+        return add(key, field, false, batch -> batch.getMap(key).getAsync(field));
+    }
+
+    @Override
+    public CacheBatch hset(String key, String field, Object value) {
+        return add(key, field, true, batch -> batch.getMap(key).fastPutAsync(field, value));
+    }
+
+    @Override
+    public CacheBatch expire(String key, long time, TimeUnit unit) {
+        return add(key, null, false, time > 0 ? batch -> batch.getBucket(key).expireAsync(Duration.ofMillis(unit.toMillis(time))) : null);
+    }
+
+    @Override
+    public CacheBatch del(String key) {
+        return add(key, null, true, batch -> batch.getBucket(key).deleteAsync());
+    }
+
+    @Override
+    public CacheBatch incr(String key, long delta) {
+        return add(key, null, true, batch -> batch.getAtomicLong(key).addAndGetAsync(delta));
+    }
+
+    @Override
+    public CacheBatch hincr(String key, String field, long delta) {
+        return add(key, field, true, batch -> batch.getMap(key).addAndGetAsync(field, delta));
+    }
+
+    @Override
+    protected List<KeyResult<Object>> doExecute(List<Op<Function<RBatch, RFuture<?>>>> ops) {
+        RBatch batch = redissonClient.createBatch(options);
+        List<CompletableFuture<?>> futures = new ArrayList<>(ops.size());
+        for (Op<Function<RBatch, RFuture<?>>> op : ops) {
+            futures.add(op.getAction() == null ? null : op.getAction().apply(batch).toCompletableFuture());
+        }
+
+        Throwable batchError = null;
+        try {
+            batch.execute();
+        } catch (Exception e) {
+            // 整批失败时，已完成的命令仍按各自结果返回
+            batchError = e;
+        }
+
+        List<KeyResult<Object>> results = new ArrayList<>(ops.size());
+        for (int i = 0; i < ops.size(); i++) {
+            Op<Function<RBatch, RFuture<?>>> op = ops.get(i);
+            CompletableFuture<?> future = futures.get(i);
+            if (future == null) {
+                results.add(KeyResult.success(op.getKey(), op.getField(), Boolean.TRUE));
+            } else if (!future.isDone()) {
+                results.add(KeyResult.failure(op.getKey(), op.getField(),
+                        batchError != null ? batchError : new IllegalStateException("Batch command not completed")));
+            } else {
+                try {
+                    results.add(KeyResult.success(op.getKey(), op.getField(), future.join()));
+                } catch (CompletionException | CancellationException e) {
+                    results.add(KeyResult.failure(op.getKey(), op.getField(), e.getCause() != null ? e.getCause() : e));
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.learn.domain.bloom;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 布隆过滤器新增元素的广播消息，其他节点收到后直接在本地副本上置位
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloomFilterAdd {
+    private String origin;
+    // 过滤器版本(Redis中位图的实际键)，与本地副本版本不一致时忽略
+    private String version;
+    private long[] indexes;
+}
@@ -0,0 +1,315 @@
+package com.example.learn.domain.bloom;
+
+import com.example.learn.domain.config.BloomFilterProperties;
+import com.example.learn.domain.metrics.CacheMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.Hash;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布隆过滤器防穿透
+ * 过滤器为 Redisson RBloomFilter(元素统一按字符串编码)，每个节点保存一份位图副本，判断时不访问网络：
+ * 返回 false 表示一定不存在，可以直接拒绝；返回 true 表示可能存在，继续查缓存/数据源
+ * 副本定时从Redis全量刷新，新增元素通过 Topic 广播后其他节点立即置位；副本不可用时退化为访问Redis
+ * <p>
+ * 过滤器名称 name 是一个指针键，值为当前版本的位图键(name:v时间戳)；重建时写入新版本后切换指针，旧版本随后删除
+ * 本地副本按与 RedissonBloomFilter(Redisson 3.17)相同的方式计算位下标，加载时用探针元素校验，不一致时只使用远程判断
+ */
+@Slf4j
+@Component
+public class BloomGuard {
+    // 指标中的 client 标签
+    private static final String CLIENT = "redisson";
+
+    // 每个版本初始化时写入的探针元素，用于校验本地下标计算与Redis一致
+    private static final String PROBE = "__bloom_probe__";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private BloomFilterProperties properties;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    // 当前节点标识，用于忽略自己发出的广播
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Replica> replicas = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+    private RTopic topic;
+    private Integer listenerId;
+
+    @PostConstruct
+    public void init() {
+        if (properties.getFilters().isEmpty()) {
+            return;
+        }
+        topic = redissonClient.getTopic(properties.getTopic());
+        listenerId = topic.addListener(BloomFilterAdd.class, (channel, msg) -> onAdd(msg));
+        properties.getFilters().keySet().forEach(this::refreshQuietly);
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "cache-bloom-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> properties.getFilters().keySet().forEach(this::refreshQuietly),
+                properties.getRefreshInterval(), properties.getRefreshInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (listenerId != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    // ============================= 判断 ============================
+
+    /**
+     * 元素是否可能存在
+     * @param name 过滤器名称(learn.cache.bloom.filters 中配置)
+     * @param element 元素，按 String.valueOf 编码
+     * @return false 表示一定不存在；未配置的过滤器或出错时返回 true(不拦截)
+     */
+    public boolean mightContain(String name, Object element) {
+        BloomFilterProperties.Filter config = properties.getFilters().get(name);
+        if (config == null) {
+            return true;
+        }
+        String value = String.valueOf(element);
+        boolean result;
+        Replica replica = replicas.get(name);
+        if (config.isLocalReplica() && replica != null && replica.verified) {
+            result = replica.mightContain(value);
+        } else {
+            result = remoteContains(name, value);
+        }
+        if (!result) {
+            rejected(name).increment();
+        }
+        return result;
+    }
+
+    // ============================= 写入 ============================
+
+    /**
+     * 添加元素，数据源新增记录后调用
+     * @param name 过滤器名称
+     * @param element 元素
+     * @return 是否成功
+     */
+    public boolean add(String name, Object element) {
+        String value = String.valueOf(element);
+        return metrics.time(CLIENT, "bloomAdd", name, () -> {
+            try {
+                String version = currentVersion(name);
+                filter(version).add(value);
+                Replica replica = replicas.get(name);
+                if (replica != null && replica.version.equals(version)) {
+                    long[] indexes = replica.indexes(value);
+                    replica.set(indexes);
+                    topic.publish(new BloomFilterAdd(nodeId, version, indexes));
+                }
+                return true;
+            } catch (Exception e) {
+                log.error("Failed to add to bloom filter, name: {}, element: {}", name, value, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 用全量数据重建过滤器，位图在本地计算后一次写入，写完再切换版本
+     * 重建期间新增的元素可能不在新版本中，数据源应包含这些元素或在重建后重新 add
+     * @param name 过滤器名称
+     * @param elements 全部元素
+     * @return 是否成功
+     */
+    public boolean rebuild(String name, Iterable<?> elements) {
+        BloomFilterProperties.Filter config = properties.getFilters().get(name);
+        if (config == null) {
+            log.error("Bloom filter not configured, name: {}", name);
+            return false;
+        }
+        return metrics.time(CLIENT, "bloomRebuild", name, () -> {
+            try {
+                String oldVersion = redissonClient.<String>getBucket(name, StringCodec.INSTANCE).get();
+                String version = name + ":v" + System.currentTimeMillis();
+                RBloomFilter<String> filter = filter(version);
+                filter.tryInit(config.getExpectedInsertions(), config.getFalseProbability());
+                long size = filter.getSize();
+                byte[] bits = new byte[(int) ((size + 7) / 8)];
+                Replica replica = new Replica(version, size, filter.getHashIterations(), bits);
+                replica.set(replica.indexes(PROBE));
+                for (Object element : elements) {
+                    replica.set(replica.indexes(String.valueOf(element)));
+                }
+                redissonClient.getBucket(version, ByteArrayCodec.INSTANCE).set(bits);
+                redissonClient.getBucket(name, StringCodec.INSTANCE).set(version);
+                if (oldVersion != null && !oldVersion.equals(version)) {
+                    redissonClient.getBloomFilter(oldVersion, StringCodec.INSTANCE).delete();
+                }
+                refresh(name);
+                return true;
+            } catch (Exception e) {
+                log.error("Failed to rebuild bloom filter, name: {}", name, e);
+                return false;
+            }
+        });
+    }
+
+    // ============================= 副本 ============================
+
+    private void refreshQuietly(String name) {
+        try {
+            refresh(name);
+        } catch (Exception e) {
+            log.error("Failed to refresh bloom filter replica, name: {}", name, e);
+        }
+    }
+
+    private void refresh(String name) {
+        BloomFilterProperties.Filter config = properties.getFilters().get(name);
+        String version = currentVersion(name);
+        RBloomFilter<String> filter = filter(version);
+        if (filter.tryInit(config.getExpectedInsertions(), config.getFalseProbability())) {
+            filter.add(PROBE);
+        }
+        if (!config.isLocalReplica()) {
+            return;
+        }
+        RBucket<byte[]> bucket = redissonClient.getBucket(version, ByteArrayCodec.INSTANCE);
+        byte[] bits = metrics.time(CLIENT, "bloomRefresh", name, bucket::get);
+        Replica replica = new Replica(version, filter.getSize(), filter.getHashIterations(), bits != null ? bits : new byte[0]);
+        replica.verified = replica.mightContain(PROBE);
+        if (!replica.verified) {
+            log.error("Bloom filter replica does not match Redis, falling back to remote checks, name: {}", name);
+        }
+        replicas.put(name, replica);
+    }
+
+    private void onAdd(BloomFilterAdd msg) {
+        if (nodeId.equals(msg.getOrigin())) {
+            return;
+        }
+        replicas.values().stream()
+                .filter(replica -> replica.version.equals(msg.getVersion()))
+                .forEach(replica -> replica.set(msg.getIndexes()));
+    }
+
+    // 当前版本的位图键，首次使用时创建
+    private String currentVersion(String name) {
+        RBucket<String> pointer = redissonClient.getBucket(name, StringCodec.INSTANCE);
+        String version = pointer.get();
+        if (version != null) {
+            return version;
+        }
+        pointer.setIfAbsent(name + ":v" + System.currentTimeMillis());
+        return pointer.get();
+    }
+
+    private boolean remoteContains(String name, String value) {
+        try {
+            return metrics.time(CLIENT, "bloomContains", name, () -> filter(currentVersion(name)).contains(value));
+        } catch (Exception e) {
+            log.error("Failed to check bloom filter, name: {}", name, e);
+            return true;
+        }
+    }
+
+    private RBloomFilter<String> filter(String version) {
+        return redissonClient.getBloomFilter(version, StringCodec.INSTANCE);
+    }
+
+    private Counter rejected(String name) {
+        return rejectedCounters.computeIfAbsent(name,
+                n -> Counter.builder("learn.cache.bloom.rejected").tag("filter", n).register(metrics.getRegistry()));
+    }
+
+    /**
+     * 位图副本，位序与 Redis SETBIT 一致(每个字节高位在前)
+     */
+    private static class Replica {
+        private final String version;
+        private final long size;
+        private final int hashIterations;
+        private volatile byte[] bits;
+        private volatile boolean verified = true;
+
+        private Replica(String version, long size, int hashIterations, byte[] bits) {
+            this.version = version;
+            this.size = size;
+            this.hashIterations = hashIterations;
+            this.bits = bits;
+        }
+
+        private boolean mightContain(String value) {
+            byte[] current = bits;
+            for (long index : indexes(value)) {
+                int offset = (int) (index >>> 3);
+                if (offset >= current.length || (current[offset] & (0x80 >>> (index & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private synchronized void set(long[] indexes) {
+            byte[] current = bits;
+            for (long index : indexes) {
+                int offset = (int) (index >>> 3);
+                if (offset >= current.length) {
+                    // Redis 位图只扩展到最高的已置位字节
+                    current = Arrays.copyOf(current, (int) ((size + 7) / 8));
+                }
+                current[offset] |= (byte) (0x80 >>> (index & 7));
+            }
+            bits = current;
+        }
+
+        // 与 RedissonBloomFilter 相同：对编码后的元素做 128 位哈希，再用双重哈希得到 hashIterations 个下标
+        private long[] indexes(String value) {
+            ByteBuf state = Unpooled.wrappedBuffer(value.getBytes(StandardCharsets.UTF_8));
+            long[] hashes;
+            try {
+                hashes = Hash.hash128(state);
+            } finally {
+                state.release();
+            }
+            long[] indexes = new long[hashIterations];
+            long hash = hashes[0];
+            for (int i = 0; i < hashIterations; i++) {
+                indexes[i] = (hash & Long.MAX_VALUE) % size;
+                hash += i % 2 == 0 ? hashes[1] : hashes[0];
+            }
+            return indexes;
+        }
+    }
+}
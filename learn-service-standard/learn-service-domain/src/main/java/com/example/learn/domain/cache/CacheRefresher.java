@@ -0,0 +1,66 @@
+package com.example.learn.domain.cache;
+
+import com.example.learn.domain.config.LoadingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * getOrLoad 的后台回源线程池
+ * 队列满时放弃刷新，调用方继续返回旧值
+ */
+@Slf4j
+@Component
+public class CacheRefresher {
+    @Autowired
+    private LoadingProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getRefreshQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "cache-refresh-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交后台刷新
+     * @param key 键，用于日志
+     * @param task 刷新任务
+     * @return 是否已提交
+     */
+    public boolean submit(String key, Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Failed to refresh cache, key: {}", key, e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Cache refresh rejected, serving stale value, key: {}", key);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.learn.domain.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * getOrLoad 写入的缓存值，带回源耗时和逻辑过期时间
+ * Redis 中的实际过期时间比逻辑过期时间多出 staleTtl，逻辑过期后仍可返回旧值
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedValue {
+    private Object value;
+    // 上次回源耗时(毫秒)
+    private long delta;
+    // 逻辑过期时间(毫秒时间戳)
+    private long expiry;
+
+    /**
+     * 是否需要刷新：已逻辑过期，或按 XFetch 被提前选中
+     * 回源越慢、越接近过期，被选中的概率越高：now - delta * beta * ln(rand) >= expiry
+     * @param now 当前时间(毫秒时间戳)
+     * @param beta 提前刷新系数
+     */
+    public boolean shouldRefresh(long now, double beta) {
+        if (now >= expiry) {
+            return true;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - delta * beta * Math.log(random) >= expiry;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.learn.domain.cache;
+
+import lombok.Value;
+
+/**
+ * 进程内缓存条目的键，近端缓存和热点key缓存共用
+ * 同一个key在不同命名空间(序列化方式不同的客户端)下分别缓存；普通缓存的 field 为null
+ */
+@Value
+public class EntryKey {
+    String namespace;
+    String key;
+    String field;
+}
@@ -0,0 +1,139 @@
+package com.example.learn.domain.cache;
+
+import com.example.learn.domain.config.LocalCachedMapProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.LocalCachedMapOptions;
+import org.redisson.api.RLocalCachedMap;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RLocalCachedMap 实例管理
+ * 每个实例会订阅失效消息，因此按key复用，不能每次调用都创建
+ * 只有通过 RLocalCachedMap 的写入才会通知其他节点失效，所以受管理key的写入也必须经过这里
+ * 只管理匹配 keyPrefixes 的key：所有节点对这些key的判断一致，写入都会发出失效通知
+ * 实例最多保留 maxMaps 个，超出时淘汰最久未使用的实例并 destroy(取消订阅、清空本地缓存)，再次访问时重新创建
+ */
+@Slf4j
+@Component
+public class LocalCachedMaps {
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private LocalCachedMapProperties properties;
+
+    private Cache<String, RLocalCachedMap<Object, Object>> maps;
+
+    @PostConstruct
+    public void init() {
+        maps = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxMaps())
+                // 在淘汰/失效的线程上同步 destroy，关闭时 invalidateAll 返回前所有实例都已取消订阅
+                .executor(Runnable::run)
+                .removalListener((String key, RLocalCachedMap<Object, Object> map, RemovalCause cause) -> destroyQuietly(key, map))
+                .build();
+    }
+
+    /**
+     * 获取(或创建)本地缓存Map
+     * @param key 键 须为受管理的key
+     * @return 本地缓存Map
+     */
+    public RLocalCachedMap<Object, Object> get(String key) {
+        if (!isManaged(key)) {
+            throw new IllegalArgumentException("Key is not configured in learn.cache.local-map.keyPrefixes: " + key);
+        }
+        return maps.get(key, k -> redissonClient.getLocalCachedMap(k, options()));
+    }
+
+    /**
+     * 是否为本地缓存管理的key(匹配配置的前缀)
+     * @param key 键
+     * @return 是否受管理
+     */
+    public boolean isManaged(String key) {
+        for (String prefix : properties.getKeyPrefixes()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入用的Map：受管理的key返回本地缓存Map，其余返回普通 RMap
+     * @param key 键
+     * @return Map
+     */
+    public RMap<Object, Object> forWrite(String key) {
+        return isManaged(key) ? get(key) : redissonClient.getMap(key);
+    }
+
+    /**
+     * 绕过 RLocalCachedMap 修改了受管理key(脚本写入、删除)后调用，清空所有节点上的本地缓存
+     * @param key 键
+     */
+    public void clearIfManaged(String key) {
+        if (!isManaged(key)) {
+            return;
+        }
+        try {
+            get(key).clearLocalCache();
+        } catch (Exception e) {
+            log.error("Failed to clear local cached map, key: {}", key, e);
+        }
+    }
+
+    /**
+     * clearIfManaged 的异步版本，失败时记录日志后正常完成
+     * @param key 键
+     */
+    public CompletionStage<Void> clearIfManagedAsync(String key) {
+        if (!isManaged(key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return get(key).clearLocalCacheAsync().exceptionally(e -> {
+            log.error("Failed to clear local cached map, key: {}", key, e);
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        maps.invalidateAll();
+        maps.cleanUp();
+    }
+
+    private static void destroyQuietly(String key, RLocalCachedMap<Object, Object> map) {
+        if (map == null) {
+            return;
+        }
+        try {
+            map.destroy();
+        } catch (Exception e) {
+            log.error("Failed to destroy local cached map, key: {}", key, e);
+        }
+    }
+
+    private LocalCachedMapOptions<Object, Object> options() {
+        return LocalCachedMapOptions.<Object, Object>defaults()
+                .cacheSize(properties.getCacheSize())
+                .evictionPolicy(properties.getEvictionPolicy())
+                .syncStrategy(properties.getSyncStrategy())
+                .reconnectionStrategy(properties.getReconnectionStrategy())
+                .timeToLive(properties.getTimeToLive(), TimeUnit.SECONDS)
+                .maxIdle(properties.getMaxIdle(), TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.learn.domain.cache;
+
+import com.example.learn.domain.config.NearCacheProperties;
+import com.example.learn.domain.hotkey.HotKeys;
+import com.example.learn.domain.metrics.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 两级近端缓存
+ * L1 为进程内有界缓存(按容量与TTL淘汰)，未命中时回源 Redis(L2)
+ * 写入/删除时通过 Redisson Topic 广播失效消息，其他节点收到后丢弃本地条目
+ * 热点key提升后的进程内缓存(HotKeys)也在这里一并失效
+ */
+@Slf4j
+@Component
+public class NearCache {
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private NearCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private HotKeys hotKeys;
+
+    // 当前节点标识，用于忽略自己发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // 出现过的命名空间，失效时逐个精确失效以等待进行中的回源
+    private final Set<String> namespaces = ConcurrentHashMap.newKeySet();
+
+    // key -> L1 中该key下的Hash项条目，失效整个key时只处理这些条目，不遍历整个L1
+    private final Map<String, Set<EntryKey>> fieldIndex = new ConcurrentHashMap<>();
+
+    private Cache<EntryKey, Object> cache;
+    private RTopic topic;
+    private Integer listenerId;
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite(), TimeUnit.SECONDS)
+                .recordStats()
+                .removalListener((EntryKey entry, Object value, RemovalCause cause) -> unindex(entry))
+                .build();
+        // 命中率、淘汰数等统计以 cache.* 指标暴露
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), cache, "near-cache");
+        topic = redissonClient.getTopic(properties.getTopic());
+        listenerId = topic.addListener(NearCacheInvalidation.class, (channel, msg) -> onInvalidation(msg));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (listenerId != null) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    // ============================= 读取 ============================
+
+    /**
+     * 读取普通缓存，L1 未命中时通过 loader 回源
+     * 同一key的并发回源只会执行一次，回源结果为null时不缓存
+     * @param namespace 命名空间(不同序列化方式的客户端互相隔离)
+     * @param key 键
+     * @param loader 回源逻辑
+     * @return 值
+     */
+    public Object get(String namespace, String key, Supplier<Object> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        namespaces.add(namespace);
+        return cache.get(new EntryKey(namespace, key, null), k -> loader.get());
+    }
+
+    /**
+     * 读取Hash项，L1 未命中时通过 loader 回源
+     * @param namespace 命名空间
+     * @param key 键
+     * @param field 项
+     * @param loader 回源逻辑
+     * @return 值
+     */
+    public Object hget(String namespace, String key, String field, Supplier<Object> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+        namespaces.add(namespace);
+        EntryKey entry = new EntryKey(namespace, key, field);
+        // 回源前登记保证进行中的回源可被失效；回源后再登记一次，覆盖淘汰回调先于本次放入执行的情况，结果为null(未缓存)时撤销登记
+        index(entry);
+        Object value = cache.get(entry, k -> loader.get());
+        if (value != null) {
+            index(entry);
+        } else {
+            unindex(entry);
+        }
+        return value;
+    }
+
+    /**
+     * 只读取L1，不回源，供异步读取使用
+     * 异步回源的结果不写回L1：写回无法与失效互斥，可能把旧值重新放入L1
+     * @param namespace 命名空间
+     * @param key 键
+     * @param field 项 普通缓存传null
+     * @return L1中的值，未启用或未命中时返回null
+     */
+    public Object getIfPresent(String namespace, String key, String field) {
+        return cache == null ? null : cache.getIfPresent(new EntryKey(namespace, key, field));
+    }
+
+    // ============================= 失效 ============================
+
+    /**
+     * 失效整个key(含其下所有Hash项)，并通知其他节点
+     * @param keys 键 可以是多个
+     */
+    public void invalidate(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return;
+        }
+        List<String> keyList = Arrays.asList(keys);
+        hotKeys.invalidate(keyList);
+        if (cache == null) {
+            return;
+        }
+        evictKeys(keyList);
+        publish(new NearCacheInvalidation(nodeId, keyList, null));
+    }
+
+    /**
+     * 失效Hash中的指定项，并通知其他节点
+     * @param key 键
+     * @param fields 项 可以是多个
+     */
+    public void invalidateFields(String key, Object... fields) {
+        if (fields == null || fields.length == 0) {
+            return;
+        }
+        List<String> fieldList = Arrays.stream(fields).map(String::valueOf).collect(Collectors.toList());
+        hotKeys.invalidateFields(key, fieldList);
+        if (cache == null) {
+            return;
+        }
+        evictFields(key, fieldList);
+        publish(new NearCacheInvalidation(nodeId, Collections.singletonList(key), fieldList));
+    }
+
+    // ============================= 统计 ============================
+
+    /**
+     * 命中/未命中/淘汰等统计，未启用时返回空统计
+     */
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    /**
+     * 当前L1条目数(估算值)
+     */
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    private void onInvalidation(NearCacheInvalidation msg) {
+        if (nodeId.equals(msg.getOrigin()) || msg.getKeys() == null) {
+            return;
+        }
+        if (msg.getFields() == null) {
+            hotKeys.invalidate(msg.getKeys());
+            evictKeys(msg.getKeys());
+        } else {
+            msg.getKeys().forEach(key -> {
+                hotKeys.invalidateFields(key, msg.getFields());
+                evictFields(key, msg.getFields());
+            });
+        }
+    }
+
+    // 不区分命名空间：同一个Redis key被任一客户端修改，所有命名空间的L1都需要丢弃
+    // invalidate 会等待同一条目上进行中的回源结束，避免回源读到旧值后又写回L1
+    private void evictKeys(List<String> keys) {
+        for (String namespace : namespaces) {
+            keys.forEach(key -> cache.invalidate(new EntryKey(namespace, key, null)));
+        }
+        for (String key : keys) {
+            Set<EntryKey> fields = fieldIndex.remove(key);
+            if (fields != null) {
+                cache.invalidateAll(fields);
+            }
+        }
+    }
+
+    private void index(EntryKey entry) {
+        fieldIndex.compute(entry.getKey(), (key, fields) -> {
+            Set<EntryKey> result = fields != null ? fields : ConcurrentHashMap.newKeySet();
+            result.add(entry);
+            return result;
+        });
+    }
+
+    // 条目被淘汰/过期/失效后从索引移除；与 index 在同一个key上互斥，条目已被重新放入时保留
+    private void unindex(EntryKey entry) {
+        if (entry == null || entry.getField() == null) {
+            return;
+        }
+        fieldIndex.computeIfPresent(entry.getKey(), (key, fields) -> {
+            if (!cache.asMap().containsKey(entry)) {
+                fields.remove(entry);
+            }
+            return fields.isEmpty() ? null : fields;
+        });
+    }
+
+    private void evictFields(String key, List<String> fields) {
+        for (String namespace : namespaces) {
+            fields.forEach(field -> cache.invalidate(new EntryKey(namespace, key, field)));
+        }
+    }
+
+    private void publish(NearCacheInvalidation msg) {
+        try {
+            topic.publishAsync(msg);
+        } catch (Exception e) {
+            log.error("Failed to publish near cache invalidation, keys: {}", msg.getKeys(), e);
+        }
+    }
+}
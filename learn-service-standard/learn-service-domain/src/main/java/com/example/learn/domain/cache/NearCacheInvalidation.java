@@ -0,0 +1,20 @@
+package com.example.learn.domain.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 近端缓存失效消息
+ * fields 为空时表示整个key失效，否则只失效该key下的指定Hash项
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearCacheInvalidation {
+    private String origin;
+    private List<String> keys;
+    private List<String> fields;
+}
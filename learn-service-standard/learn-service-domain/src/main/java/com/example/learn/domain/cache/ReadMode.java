@@ -0,0 +1,13 @@
+package com.example.learn.domain.cache;
+
+/**
+ * 集合类读取方式
+ */
+public enum ReadMode {
+    // 返回 Redisson 代理对象，每次 get/size/遍历 都会访问Redis
+    LIVE,
+    // 一次性批量读取到普通的 Map/Set，之后的访问不再访问Redis
+    SNAPSHOT,
+    // 基于 RLocalCachedMap 的本地缓存视图，仅支持 Hash，且只对 learn.cache.local-map.keyPrefixes 匹配的key生效
+    LOCAL_CACHED
+}
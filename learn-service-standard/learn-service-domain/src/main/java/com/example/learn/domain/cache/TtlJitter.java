@@ -0,0 +1,25 @@
+package com.example.learn.domain.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间随机浮动，避免同一批写入的key在同一时刻集中过期
+ */
+public final class TtlJitter {
+
+    private TtlJitter() {
+    }
+
+    /**
+     * 在 [ttlMillis * (1 - jitter), ttlMillis * (1 + jitter)) 内随机取值
+     * @param ttlMillis 过期时间(毫秒)
+     * @param jitter 浮动比例，小于等于0时不浮动
+     * @return 浮动后的过期时间，至少为1毫秒
+     */
+    public static long apply(long ttlMillis, double jitter) {
+        if (jitter <= 0) {
+            return ttlMillis;
+        }
+        return Math.max(1, (long) (ttlMillis * (1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter))));
+    }
+}
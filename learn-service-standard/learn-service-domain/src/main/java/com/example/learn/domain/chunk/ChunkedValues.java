@@ -0,0 +1,341 @@
+package com.example.learn.domain.chunk;
+
+import com.example.learn.domain.cluster.ClusterSlots;
+import com.example.learn.domain.config.ChunkProperties;
+import com.example.learn.domain.script.LuaScript;
+import com.example.learn.domain.script.ScriptEngine;
+import io.netty.buffer.Unpooled;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBucketAsync;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 大值分块存储
+ * 编码后超过 chunkSize 的值拆分为固定大小的分块，调用方的key作为清单键，只保存版本号、分块数和总长度，
+ * 避免单个大key的读写长时间占用Redis主线程；不超过 chunkSize 的值直接存放在清单键中
+ * <p>
+ * 写入：分块先写入新版本的键(此时不可见)，再用 GETSET 切换清单，读取方看到的要么是旧版本要么是新版本，旧版本分块随后异步删除
+ * 读取：读取清单后分成 parallelism 个管道并行读取分块，用 CompositeByteBuf 直接拼接后解码，不再整体复制
+ * 过期：清单与全部分块在一个脚本中设置；分块键与清单键使用同一个 hash tag，集群模式下同样原子
+ * 分块比清单晚 expireGrace 过期，清单存在时分块一定存在；读取时分块缺失(并发改写/删除)会重新读取清单
+ * 清单不是普通的编码值，通过这里写入的key须通过这里读取；普通读取使用 readCodec，读到清单时报错而不是解码出错误的值
+ * 普通写入和删除通过 setPlain/deleteKeys 执行，覆盖或删除清单时一并删除其分块，分块不会因此失去引用
+ */
+@Slf4j
+@Component
+public class ChunkedValues {
+    static final byte INLINE = 0;
+    static final byte CHUNKED = 1;
+    // 分块清单：[类型 1字节][版本 8字节][分块数 4字节][总长度 4字节]，过期脚本按该长度比较清单
+    private static final int MANIFEST_SIZE = 17;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private ScriptEngine scriptEngine;
+
+    @Autowired
+    private ChunkProperties properties;
+
+    private Codec readCodec;
+
+    @PostConstruct
+    public void init() {
+        readCodec = new ManifestGuardCodec(redissonClient.getConfig().getCodec());
+    }
+
+    /**
+     * 普通(非分块)读取使用的编解码器，与客户端默认编解码器相同，但遇到分块清单时抛出 IllegalStateException
+     */
+    public Codec readCodec() {
+        return readCodec;
+    }
+
+    /**
+     * 写入值，超过 chunkSize 时分块存储
+     * @param key 键
+     * @param value 值
+     * @param ttlMillis 过期时间(毫秒) 小于等于0时不过期
+     */
+    public void set(String key, Object value, long ttlMillis) {
+        Codec codec = redissonClient.getConfig().getCodec();
+        byte[] encoded = scriptEngine.encode(codec.getValueEncoder(), value);
+        byte[] manifest;
+        if (encoded.length <= properties.getChunkSize()) {
+            manifest = new byte[encoded.length + 1];
+            manifest[0] = INLINE;
+            System.arraycopy(encoded, 0, manifest, 1, encoded.length);
+        } else {
+            int count = (encoded.length + properties.getChunkSize() - 1) / properties.getChunkSize();
+            Manifest chunked = new Manifest(ThreadLocalRandom.current().nextLong(), count, encoded.length);
+            List<String> chunkKeys = chunkKeys(key, chunked);
+            try {
+                writeChunks(chunkKeys, encoded, ttlMillis);
+            } catch (RuntimeException e) {
+                unlinkQuietly(key, chunkKeys);
+                throw e;
+            }
+            manifest = chunked.toBytes();
+        }
+        RBucket<byte[]> bucket = manifestBucket(key);
+        byte[] previous = ttlMillis > 0
+                ? bucket.getAndSet(manifest, ttlMillis, TimeUnit.MILLISECONDS)
+                : bucket.getAndSet(manifest);
+        unlinkChunksOf(key, previous);
+    }
+
+    /**
+     * 读取值，分块并行读取后拼接解码
+     * @param key 键
+     * @return 值，不存在(或分块已过期)时返回null
+     */
+    public Object get(String key) {
+        Codec codec = redissonClient.getConfig().getCodec();
+        RBucket<byte[]> bucket = manifestBucket(key);
+        for (int attempt = 0; ; attempt++) {
+            byte[] manifest = bucket.get();
+            if (manifest == null || manifest.length == 0) {
+                return null;
+            }
+            if (manifest[0] == INLINE) {
+                return scriptEngine.decode(codec, Unpooled.wrappedBuffer(manifest, 1, manifest.length - 1));
+            }
+            Manifest chunked = Manifest.parse(manifest);
+            if (chunked == null) {
+                throw new IllegalStateException("Not a chunked value manifest, key: " + key);
+            }
+            List<String> chunkKeys = chunkKeys(key, chunked);
+            List<byte[]> chunks = pipelined(chunkKeys.size(),
+                    (batch, i) -> batch.<byte[]>getBucket(chunkKeys.get(i), ByteArrayCodec.INSTANCE).getAsync());
+            if (isComplete(chunks, chunked.getLength())) {
+                return scriptEngine.decode(codec, Unpooled.wrappedBuffer(chunks.toArray(new byte[0][])));
+            }
+            if (attempt >= properties.getReadRetries()) {
+                log.warn("Chunked value incomplete after {} retries, treating as missing, key: {}", attempt, key);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 原子地设置清单和全部分块的过期时间，清单在读取后被并发改写时重试一次
+     * @param key 键
+     * @param ttlMillis 过期时间(毫秒)，须大于0
+     * @return 键存在且设置成功时返回true
+     */
+    public boolean expire(String key, long ttlMillis) {
+        RBucket<byte[]> bucket = manifestBucket(key);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            byte[] manifest = bucket.get();
+            if (manifest == null || manifest.length == 0) {
+                return false;
+            }
+            List<Object> keys = new ArrayList<>();
+            keys.add(key);
+            Manifest chunked = Manifest.parse(manifest);
+            if (chunked != null) {
+                keys.addAll(chunkKeys(key, chunked));
+            }
+            Long updated = scriptEngine.eval(LuaScript.CHUNK_EXPIRE, RScript.ReturnType.INTEGER, keys,
+                    scriptEngine.ttlArg(ttlMillis), scriptEngine.ttlArg(ttlMillis + properties.getExpireGrace()),
+                    Arrays.copyOf(manifest, Math.min(manifest.length, MANIFEST_SIZE)));
+            if (updated != null && updated == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 删除清单，分块随后异步删除
+     * @param key 键
+     * @return 键是否存在
+     */
+    public boolean delete(String key) {
+        byte[] previous = manifestBucket(key).getAndDelete();
+        unlinkChunksOf(key, previous);
+        return previous != null;
+    }
+
+    /**
+     * 普通写入(不分块)，原值是分块清单时删除其分块
+     * @param key 键
+     * @param value 值
+     * @param ttlMillis 过期时间(毫秒) 小于等于0时不过期
+     */
+    public void setPlain(String key, Object value, long ttlMillis) {
+        byte[] previous = scriptEngine.eval(LuaScript.SET_RETURN_MANIFEST, RScript.ReturnType.VALUE, key,
+                scriptEngine.ttlArg(ttlMillis), encode(value));
+        unlinkChunksOf(key, previous);
+    }
+
+    /**
+     * setPlain 的异步版本
+     */
+    public CompletionStage<Void> setPlainAsync(String key, Object value, long ttlMillis) {
+        return scriptEngine.<byte[]>evalAsync(LuaScript.SET_RETURN_MANIFEST, RScript.ReturnType.VALUE, key,
+                        scriptEngine.ttlArg(ttlMillis), encode(value))
+                .thenAccept(previous -> unlinkChunksOf(key, previous));
+    }
+
+    /**
+     * 删除同一槽位的多个键，其中的分块清单连同分块一起删除
+     * @param keys 键，集群模式下须在同一槽位
+     * @param unlink 是否使用 UNLINK(服务端后台回收内存)
+     * @return 删除的个数
+     */
+    public long deleteKeys(List<String> keys, boolean unlink) {
+        List<Object> result = scriptEngine.eval(LuaScript.DELETE_RETURN_MANIFESTS, RScript.ReturnType.MULTI,
+                new ArrayList<>(keys), deleteCommand(unlink));
+        return deleted(keys, result);
+    }
+
+    /**
+     * 删除任意多个键，按槽位拆分后各自执行，其中的分块清单连同分块一起删除
+     * @param keys 键
+     * @param unlink 是否使用 UNLINK
+     * @return 删除的个数
+     */
+    public CompletionStage<Long> deleteKeysAsync(List<String> keys, boolean unlink) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        ClusterSlots.groupBySlot(keys).values().forEach(slotKeys -> futures.add(scriptEngine.<List<Object>>evalAsync(
+                        LuaScript.DELETE_RETURN_MANIFESTS, RScript.ReturnType.MULTI, new ArrayList<>(slotKeys), deleteCommand(unlink))
+                .thenApply(result -> deleted(slotKeys, result))
+                .toCompletableFuture()));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream().mapToLong(CompletableFuture::join).sum());
+    }
+
+    private long deleted(List<String> keys, List<Object> result) {
+        for (int i = 0; i < keys.size(); i++) {
+            unlinkChunksOf(keys.get(i), (byte[]) result.get(i + 1));
+        }
+        return (Long) result.get(0);
+    }
+
+    private static byte[] deleteCommand(boolean unlink) {
+        return (unlink ? "UNLINK" : "DEL").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(Object value) {
+        return scriptEngine.encode(redissonClient.getConfig().getCodec().getValueEncoder(), value);
+    }
+
+    // manifest 为被覆盖或删除的原值，是分块清单时删除其分块
+    private void unlinkChunksOf(String key, byte[] manifest) {
+        Manifest old = Manifest.parse(manifest);
+        if (old != null) {
+            unlinkQuietly(key, chunkKeys(key, old));
+        }
+    }
+
+    private void writeChunks(List<String> chunkKeys, byte[] encoded, long ttlMillis) {
+        int chunkSize = properties.getChunkSize();
+        long chunkTtl = ttlMillis > 0 ? ttlMillis + properties.getExpireGrace() : 0;
+        pipelined(chunkKeys.size(), (batch, i) -> {
+            byte[] chunk = Arrays.copyOfRange(encoded, i * chunkSize, Math.min(encoded.length, (i + 1) * chunkSize));
+            RBucketAsync<byte[]> bucket = batch.getBucket(chunkKeys.get(i), ByteArrayCodec.INSTANCE);
+            return chunkTtl > 0 ? bucket.setAsync(chunk, chunkTtl, TimeUnit.MILLISECONDS) : bucket.setAsync(chunk);
+        });
+    }
+
+    /**
+     * 将 count 个命令按序号连续地分成至多 parallelism 个管道，各管道同时发送，全部完成后按序号返回结果
+     */
+    private <T> List<T> pipelined(int count, BiFunction<RBatch, Integer, RFuture<T>> command) {
+        int groups = Math.max(1, Math.min(properties.getParallelism(), count));
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        List<CompletableFuture<?>> executions = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+            for (int i = g * count / groups; i < (g + 1) * count / groups; i++) {
+                futures.add(command.apply(batch, i).toCompletableFuture());
+            }
+            executions.add(batch.executeAsync().toCompletableFuture());
+        }
+        CompletableFuture.allOf(executions.toArray(new CompletableFuture[0])).join();
+        List<T> results = new ArrayList<>(count);
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+
+    private static boolean isComplete(List<byte[]> chunks, int length) {
+        long total = 0;
+        for (byte[] chunk : chunks) {
+            if (chunk == null) {
+                return false;
+            }
+            total += chunk.length;
+        }
+        return total == length;
+    }
+
+    private List<String> chunkKeys(String key, Manifest manifest) {
+        String prefix = ClusterSlots.coLocated(key, properties.getKeySuffix() + Long.toHexString(manifest.getVersion()) + ":");
+        List<String> keys = new ArrayList<>(manifest.getChunks());
+        for (int i = 0; i < manifest.getChunks(); i++) {
+            keys.add(prefix + i);
+        }
+        return keys;
+    }
+
+    private RBucket<byte[]> manifestBucket(String key) {
+        return redissonClient.getBucket(key, ByteArrayCodec.INSTANCE);
+    }
+
+    // 旧版本分块不再被清单引用，删除失败时依靠过期时间回收
+    private void unlinkQuietly(String key, List<String> chunkKeys) {
+        try {
+            redissonClient.getKeys().unlinkAsync(chunkKeys.toArray(new String[0])).whenComplete((count, e) -> {
+                if (e != null) {
+                    log.error("Failed to unlink stale chunks, key: {}", key, e);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to unlink stale chunks, key: {}", key, e);
+        }
+    }
+
+    @Value
+    private static class Manifest {
+        long version;
+        int chunks;
+        int length;
+
+        byte[] toBytes() {
+            return ByteBuffer.allocate(MANIFEST_SIZE).put(CHUNKED).putLong(version).putInt(chunks).putInt(length).array();
+        }
+
+        // 不是分块清单(不存在、内联值或其他格式)时返回null
+        static Manifest parse(byte[] bytes) {
+            if (bytes == null || bytes.length != MANIFEST_SIZE || bytes[0] != CHUNKED) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, MANIFEST_SIZE - 1);
+            return new Manifest(buffer.getLong(), buffer.getInt(), buffer.getInt());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.learn.domain.chunk;
+
+import io.netty.buffer.ByteBuf;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+/**
+ * 普通读取使用的编解码器，识别分块清单后直接报错，避免把清单字节交给 JSON/紧凑格式解码得到难以理解的异常或错误的值
+ * 清单首字节为 INLINE(0) 或 CHUNKED(1)，不会出现在 JSON 文本、JDK 序列化(0xAC)和紧凑格式(0xC5)的首字节
+ */
+class ManifestGuardCodec extends BaseCodec {
+    private final Codec delegate;
+
+    private final Decoder<Object> decoder;
+
+    ManifestGuardCodec(Codec delegate) {
+        this.delegate = delegate;
+        this.decoder = (buf, state) -> {
+            if (isManifest(buf)) {
+                throw new IllegalStateException("Value was written by setChunked and must be read with getChunked");
+            }
+            return delegate.getValueDecoder().decode(buf, state);
+        };
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return delegate.getValueEncoder();
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return delegate.getClassLoader();
+    }
+
+    private static boolean isManifest(ByteBuf buf) {
+        if (!buf.isReadable()) {
+            return false;
+        }
+        byte first = buf.getByte(buf.readerIndex());
+        return first == ChunkedValues.INLINE || first == ChunkedValues.CHUNKED;
+    }
+}
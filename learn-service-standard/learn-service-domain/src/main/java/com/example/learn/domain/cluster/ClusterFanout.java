@@ -0,0 +1,261 @@
+package com.example.learn.domain.cluster;
+
+import com.example.learn.domain.config.FanoutProperties;
+import com.example.learn.domain.config.RedissonProperties;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 集群模式下多key操作的分发
+ * 按槽位分组(多key命令不能跨槽位)，再按槽位所属的主节点分组，各节点的子批次并行执行后按入参顺序合并结果
+ * 非集群模式直接在调用线程上整体执行一次
+ */
+@Slf4j
+@Component
+public class ClusterFanout {
+    @Autowired
+    private RedissonProperties redissonProperties;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private FanoutProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    // 非集群模式下的节点名
+    public static final String STANDALONE = "standalone";
+
+    // 槽位归属，非集群或尚未加载时为null
+    private volatile Topology topology;
+    private volatile long loadedAt;
+
+    @PostConstruct
+    public void init() {
+        if (!isCluster()) {
+            return;
+        }
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "cache-fanout-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public boolean isCluster() {
+        return redissonProperties.getConfig() != null && redissonProperties.getConfig().getClusterServersConfig() != null;
+    }
+
+    /**
+     * key所在的主节点(host:port)，非集群或拓扑尚未加载成功时返回 STANDALONE
+     * @param key 键
+     * @param slotOf 键的槽位
+     * @return 节点名
+     */
+    public String nodeOf(String key, ToIntFunction<String> slotOf) {
+        Topology current = topology();
+        return current == null ? STANDALONE : current.nodes.get(current.owners[slotOf.applyAsInt(key)]);
+    }
+
+    /**
+     * 逐key结果的操作(如 GET/SET 管道)：按节点拆分后并行执行
+     * @param keys 键
+     * @param slotOf 键的槽位(按客户端实际发送的键字节计算)
+     * @param perNode 执行同一节点上的键，返回与入参一一对应的结果
+     * @return 与 keys 迭代顺序一致的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> mapByNode(Collection<String> keys, ToIntFunction<String> slotOf, Function<List<String>, List<T>> perNode) {
+        List<String> list = new ArrayList<>(keys);
+        int[] owners = owners();
+        if (owners == null || list.size() <= 1) {
+            return perNode.apply(list);
+        }
+        Map<Integer, List<Integer>> byNode = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            byNode.computeIfAbsent(owners[slotOf.applyAsInt(list.get(i))], k -> new ArrayList<>()).add(i);
+        }
+        if (byNode.size() == 1) {
+            return perNode.apply(list);
+        }
+        List<List<Integer>> groups = new ArrayList<>(byNode.values());
+        List<Supplier<List<T>>> tasks = new ArrayList<>(groups.size());
+        for (List<Integer> group : groups) {
+            List<String> nodeKeys = new ArrayList<>(group.size());
+            group.forEach(i -> nodeKeys.add(list.get(i)));
+            tasks.add(() -> perNode.apply(nodeKeys));
+        }
+        List<List<T>> results = run(tasks);
+        Object[] merged = new Object[list.size()];
+        for (int g = 0; g < groups.size(); g++) {
+            List<Integer> group = groups.get(g);
+            for (int j = 0; j < group.size(); j++) {
+                merged[group.get(j)] = results.get(g).get(j);
+            }
+        }
+        return (List<T>) Arrays.asList(merged);
+    }
+
+    /**
+     * 多key命令(DEL/UNLINK/EXISTS)：集群模式下每个槽位发送一条命令，各节点并行执行，结果求和
+     * 拓扑尚未加载成功时仍按槽位拆分，只是在调用线程上依次执行
+     * @param keys 键
+     * @param slotOf 键的槽位
+     * @param perSlot 对同一槽位的键执行一条多key命令
+     * @return 各槽位结果之和
+     */
+    public <K> long sumBySlot(Collection<K> keys, ToIntFunction<K> slotOf, ToLongFunction<List<K>> perSlot) {
+        List<K> list = new ArrayList<>(keys);
+        if (!isCluster() || list.size() <= 1) {
+            return perSlot.applyAsLong(list);
+        }
+        Map<Integer, List<K>> bySlot = ClusterSlots.groupBySlot(list, slotOf);
+        int[] owners = owners();
+        if (owners == null || bySlot.size() == 1) {
+            long sum = 0;
+            for (List<K> slotKeys : bySlot.values()) {
+                sum += perSlot.applyAsLong(slotKeys);
+            }
+            return sum;
+        }
+        Map<Integer, List<List<K>>> byNode = new LinkedHashMap<>();
+        bySlot.forEach((slot, slotKeys) -> byNode.computeIfAbsent(owners[slot], k -> new ArrayList<>()).add(slotKeys));
+        List<Supplier<Long>> tasks = new ArrayList<>(byNode.size());
+        for (List<List<K>> slotGroups : byNode.values()) {
+            tasks.add(() -> {
+                long sum = 0;
+                for (List<K> slotKeys : slotGroups) {
+                    sum += perSlot.applyAsLong(slotKeys);
+                }
+                return sum;
+            });
+        }
+        return run(tasks).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // 除最后一个外提交到线程池，最后一个(及被拒绝的)在调用线程上执行
+    private <T> List<T> run(List<Supplier<T>> tasks) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Supplier<T> task = tasks.get(i);
+            CompletableFuture<T> future = null;
+            if (i < tasks.size() - 1) {
+                try {
+                    future = CompletableFuture.supplyAsync(task, executor);
+                } catch (RejectedExecutionException e) {
+                    future = null;
+                }
+            }
+            futures.add(future != null ? future : inline(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private static <T> CompletableFuture<T> inline(Supplier<T> task) {
+        try {
+            return CompletableFuture.completedFuture(task.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // 槽位归属，按 topologyRefresh 刷新；加载失败时沿用旧值，从未加载成功时退化为不拆分
+    private int[] owners() {
+        Topology current = topology();
+        return current == null ? null : current.owners;
+    }
+
+    private Topology topology() {
+        if (executor == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - loadedAt < properties.getTopologyRefresh()) {
+            return topology;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - loadedAt >= properties.getTopologyRefresh()) {
+                try {
+                    topology = loadTopology();
+                } catch (Exception e) {
+                    log.error("Failed to load cluster slot owners", e);
+                }
+                loadedAt = System.currentTimeMillis();
+            }
+        }
+        return topology;
+    }
+
+    private Topology loadTopology() {
+        int[] owners = new int[ClusterSlots.SLOT_COUNT];
+        List<String> nodes = new ArrayList<>();
+        RedisClusterConnection connection = connectionFactory.getClusterConnection();
+        try {
+            for (RedisClusterNode clusterNode : connection.clusterGetNodes()) {
+                if (!clusterNode.isMaster()) {
+                    continue;
+                }
+                for (Integer slot : clusterNode.getSlotRange().getSlots()) {
+                    owners[slot] = nodes.size();
+                }
+                nodes.add(clusterNode.getHost() + ":" + clusterNode.getPort());
+            }
+        } finally {
+            connection.close();
+        }
+        return new Topology(owners, nodes);
+    }
+
+    // 槽位 -> 节点序号，以及节点序号 -> 节点名，整体替换保证两者一致
+    @Value
+    private static class Topology {
+        int[] owners;
+        List<String> nodes;
+    }
+}
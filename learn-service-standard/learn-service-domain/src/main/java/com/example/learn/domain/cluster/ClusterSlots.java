@@ -0,0 +1,65 @@
+package com.example.learn.domain.cluster;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Redis Cluster 槽位计算(CRC16(key) mod 16384，key 含 {hash-tag} 时只计算花括号内的部分)
+ * 多key命令(MGET/DEL/EVAL 等)和管道只能在同一槽位/节点上执行，批量操作先按槽位分组
+ */
+public final class ClusterSlots {
+    public static final int SLOT_COUNT = 16384;
+
+    private ClusterSlots() {
+    }
+
+    public static int slot(String key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    public static int slot(byte[] key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    /**
+     * 生成与 key 同槽位的键：key 已含 hash tag 时直接追加后缀，否则把整个 key 作为 hash tag
+     * @param key 键
+     * @param suffix 后缀
+     * @return 与 key 在同一槽位的键
+     */
+    public static String coLocated(String key, String suffix) {
+        int start = key.indexOf('{');
+        int end = start < 0 ? -1 : key.indexOf('}', start + 1);
+        String result = end > start + 1 ? key + suffix : "{" + key + "}" + suffix;
+        if (slot(result) != slot(key)) {
+            throw new IllegalArgumentException("Cannot derive a key in the same slot as: " + key);
+        }
+        return result;
+    }
+
+    /**
+     * 按槽位分组，组内保持入参顺序
+     */
+    public static Map<Integer, List<String>> groupBySlot(Collection<String> keys) {
+        return groupBySlot(keys, ClusterSlots::slot);
+    }
+
+    /**
+     * 按槽位分组，组内保持入参顺序
+     * @param keys 键
+     * @param slotOf 取槽位的方式(如使用预先计算好的槽位)
+     */
+    public static <K> Map<Integer, List<K>> groupBySlot(Collection<K> keys, ToIntFunction<K> slotOf) {
+        Map<Integer, List<K>> groups = new LinkedHashMap<>();
+        for (K key : keys) {
+            groups.computeIfAbsent(slotOf.applyAsInt(key), k -> new ArrayList<>()).add(key);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.learn.domain.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.codec.SmileJacksonCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Redisson 紧凑二进制编解码器(Smile + 可选LZ4压缩，带格式头)
+ * 旧格式为 JsonJacksonCodec，未带格式头的数据按 JSON 解码
+ * 只有值(Bucket 的值、Map 的值)使用新格式：Map 的键和 Set/List/ZSet 的元素按字节匹配，必须保持旧格式，
+ * 否则旧数据查不到、覆盖写会产生重复项；集合元素由调用方通过 getElementCodec 指定
+ * 可通过 spring.redis.redisson.config.codec 选择，压缩等参数见 learn.cache.codec
+ */
+public class CompactCodec extends BaseCodec {
+    private final ClassLoader classLoader;
+    private final CompactFormat format;
+    private final JsonJacksonCodec legacy;
+
+    private final Encoder encoder = new Encoder() {
+        @Override
+        public ByteBuf encode(Object in) throws IOException {
+            return Unpooled.wrappedBuffer(format.encode(in));
+        }
+    };
+
+    private final Decoder<Object> decoder = new Decoder<Object>() {
+        @Override
+        public Object decode(ByteBuf buf, State state) throws IOException {
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return format.decode(bytes);
+        }
+    };
+
+    public CompactCodec() {
+        this(CompressionType.LZ4, 1024, true, null);
+    }
+
+    public CompactCodec(ClassLoader classLoader) {
+        this(CompressionType.LZ4, 1024, true, classLoader);
+    }
+
+    // Redisson 按 ClassLoader 复制编解码器时使用
+    public CompactCodec(ClassLoader classLoader, CompactCodec codec) {
+        this(codec.format.getCompression(), codec.format.getCompressionThreshold(), codec.format.isWriteCompact(), classLoader);
+    }
+
+    public CompactCodec(CompressionType compression, int compressionThreshold, boolean writeCompact, ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        SmileJacksonCodec smile = classLoader == null ? new SmileJacksonCodec() : new SmileJacksonCodec(classLoader);
+        JsonJacksonCodec legacy = classLoader == null ? new JsonJacksonCodec() : new JsonJacksonCodec(classLoader);
+        this.legacy = legacy;
+        this.format = new CompactFormat(smile.getObjectMapper(), compression, compressionThreshold, writeCompact,
+                value -> encodeLegacy(legacy, value), bytes -> decodeLegacy(legacy, bytes));
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    // Map 的键保持旧格式
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return legacy.getMapKeyDecoder();
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return legacy.getMapKeyEncoder();
+    }
+
+    /**
+     * Set/List/ZSet 元素使用的编解码器(旧格式)，Redisson 对集合元素使用 getValueEncoder，无法在这里单独区分
+     */
+    public Codec getElementCodec() {
+        return legacy;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return classLoader != null ? classLoader : super.getClassLoader();
+    }
+
+    private static byte[] encodeLegacy(JsonJacksonCodec legacy, Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = legacy.getValueEncoder().encode(value);
+            return ByteBufUtil.getBytes(buf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    private static Object decodeLegacy(JsonJacksonCodec legacy, byte[] bytes) {
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        try {
+            return legacy.getValueDecoder().decode(buf, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buf.release();
+        }
+    }
+}
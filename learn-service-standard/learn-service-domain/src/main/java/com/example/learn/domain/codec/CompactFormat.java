@@ -0,0 +1,127 @@
+package com.example.learn.domain.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * 紧凑二进制格式
+ * <pre>
+ * [MAGIC 1字节][版本(高4位)|压缩算法(低4位) 1字节][原始长度 4字节，仅压缩时存在][Smile 数据]
+ * </pre>
+ * 首字节不是 MAGIC 的数据按旧格式解码，保证切换期间旧数据仍可读取
+ */
+public class CompactFormat {
+    // 不会出现在 JSON 文本首字节，也不同于 JDK 序列化的 0xAC
+    static final byte MAGIC = (byte) 0xC5;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 2;
+    private static final int LENGTH_SIZE = 4;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final ObjectMapper mapper;
+    private final CompressionType compression;
+    private final int compressionThreshold;
+    private final boolean writeCompact;
+    private final Function<Object, byte[]> legacyEncoder;
+    private final Function<byte[], Object> legacyDecoder;
+
+    /**
+     * @param mapper Smile 的 ObjectMapper(需开启类型信息以支持 Object 反序列化)
+     * @param compression 压缩算法
+     * @param compressionThreshold 超过该字节数才压缩
+     * @param writeCompact false 时仍以旧格式写入，仅具备读取新格式的能力
+     * @param legacyEncoder 旧格式编码
+     * @param legacyDecoder 旧格式解码
+     */
+    public CompactFormat(ObjectMapper mapper, CompressionType compression, int compressionThreshold, boolean writeCompact,
+                         Function<Object, byte[]> legacyEncoder, Function<byte[], Object> legacyDecoder) {
+        this.mapper = mapper;
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+        this.writeCompact = writeCompact;
+        this.legacyEncoder = legacyEncoder;
+        this.legacyDecoder = legacyDecoder;
+    }
+
+    public byte[] encode(Object value) throws IOException {
+        if (!writeCompact) {
+            return legacyEncoder.apply(value);
+        }
+        byte[] payload = mapper.writeValueAsBytes(value);
+        if (compression == CompressionType.LZ4 && payload.length > compressionThreshold) {
+            byte[] compressed = compressLz4(payload);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        byte[] out = new byte[HEADER_SIZE + payload.length];
+        writeHeader(out, CompressionType.NONE);
+        System.arraycopy(payload, 0, out, HEADER_SIZE, payload.length);
+        return out;
+    }
+
+    public Object decode(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacyDecoder.apply(bytes);
+        }
+        int version = (bytes[1] >> 4) & 0x0F;
+        if (version != VERSION) {
+            throw new IOException("Unsupported compact format version: " + version);
+        }
+        CompressionType type = CompressionType.of(bytes[1] & 0x0F);
+        if (type == CompressionType.NONE) {
+            return mapper.readValue(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, Object.class);
+        }
+        int length = ((bytes[2] & 0xFF) << 24) | ((bytes[3] & 0xFF) << 16) | ((bytes[4] & 0xFF) << 8) | (bytes[5] & 0xFF);
+        LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+        byte[] payload = new byte[length];
+        decompressor.decompress(bytes, HEADER_SIZE + LENGTH_SIZE, payload, 0, length);
+        return mapper.readValue(payload, Object.class);
+    }
+
+    // 压缩后没有变小时返回null，按不压缩处理
+    private byte[] compressLz4(byte[] payload) {
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        int offset = HEADER_SIZE + LENGTH_SIZE;
+        byte[] out = new byte[offset + compressor.maxCompressedLength(payload.length)];
+        int size = compressor.compress(payload, 0, payload.length, out, offset);
+        if (size >= payload.length) {
+            return null;
+        }
+        writeHeader(out, CompressionType.LZ4);
+        out[2] = (byte) (payload.length >>> 24);
+        out[3] = (byte) (payload.length >>> 16);
+        out[4] = (byte) (payload.length >>> 8);
+        out[5] = (byte) payload.length;
+        byte[] result = new byte[offset + size];
+        System.arraycopy(out, 0, result, 0, result.length);
+        return result;
+    }
+
+    private void writeHeader(byte[] out, CompressionType type) {
+        out[0] = MAGIC;
+        out[1] = (byte) ((VERSION << 4) | type.getId());
+    }
+
+    CompressionType getCompression() {
+        return compression;
+    }
+
+    int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    boolean isWriteCompact() {
+        return writeCompact;
+    }
+}
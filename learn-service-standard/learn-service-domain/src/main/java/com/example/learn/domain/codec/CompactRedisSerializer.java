@@ -0,0 +1,42 @@
+package com.example.learn.domain.codec;
+
+import org.redisson.codec.SmileJacksonCodec;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * RedisTemplate 使用的紧凑二进制序列化器，格式与 CompactCodec 相同
+ * 旧格式为 JDK 序列化，未带格式头的数据按 JDK 序列化反序列化
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    private final CompactFormat format;
+
+    public CompactRedisSerializer(CompressionType compression, int compressionThreshold, boolean writeCompact,
+                                  ClassLoader classLoader) {
+        JdkSerializationRedisSerializer legacy = new JdkSerializationRedisSerializer(classLoader);
+        this.format = new CompactFormat(new SmileJacksonCodec(classLoader).getObjectMapper(), compression,
+                compressionThreshold, writeCompact, legacy::serialize, legacy::deserialize);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            return format.encode(value);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot serialize", e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        try {
+            return format.decode(bytes);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot deserialize", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.learn.domain.codec;
+
+/**
+ * 压缩算法，id 写入格式头，已使用的 id 不能修改
+ */
+public enum CompressionType {
+    NONE(0),
+    LZ4(1);
+
+    private final int id;
+
+    CompressionType(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static CompressionType of(int id) {
+        for (CompressionType type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression type: " + id);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.bloom")
+public class BloomFilterProperties {
+    // 本地副本从Redis全量刷新的间隔(毫秒)，新增元素另有广播，刷新只用于兜底
+    private long refreshInterval = 60000;
+    // 新增元素广播使用的Topic
+    private String topic = "learn:bloom:add";
+    // 过滤器名称 -> 参数，名称同时是Redis中的键
+    private Map<String, Filter> filters = new LinkedHashMap<>();
+
+    @Data
+    public static class Filter {
+        // 预计元素个数，超出后误判率上升，需要重建
+        private long expectedInsertions = 1000000;
+        // 误判率
+        private double falseProbability = 0.01;
+        // 是否在本地保存位图副本；关闭时每次判断都访问Redis
+        private boolean localReplica = true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.learn.domain.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({NearCacheProperties.class, ScanProperties.class, LocalCachedMapProperties.class,
+        CodecProperties.class, CacheMetricsProperties.class, LockProperties.class,
+        RateLimitProperties.class, CounterProperties.class, BloomFilterProperties.class,
+        LoadingProperties.class, FanoutProperties.class, HotKeyProperties.class,
+        ChunkProperties.class, WriteBehindProperties.class})
+public class CacheConfig {
+}
@@ -0,0 +1,14 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.metrics")
+public class CacheMetricsProperties {
+    private boolean enabled = true;
+    // key前缀分隔符，key中第一个分隔符之前的部分作为 prefix 标签
+    private String prefixDelimiter = ":";
+    // prefix 标签的最大取值个数，超过后统一记为 other，防止标签基数失控
+    private int maxPrefixes = 100;
+}
@@ -0,0 +1,19 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.chunk")
+public class ChunkProperties {
+    // 单个分块的最大字节数，编码后不超过该值的值直接存放在清单键中
+    private int chunkSize = 256 * 1024;
+    // 读写分块时并行执行的管道个数
+    private int parallelism = 4;
+    // 分块比清单晚过期的时间(毫秒)，保证清单存在时分块一定存在
+    private long expireGrace = 5000;
+    // 读取时分块缺失(并发改写或过期)后重新读取清单的次数
+    private int readRetries = 1;
+    // 分块键的后缀，完整格式为 {key}:chunk:版本:序号
+    private String keySuffix = ":chunk:";
+}
@@ -0,0 +1,22 @@
+package com.example.learn.domain.config;
+
+import com.example.learn.domain.codec.CompressionType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.codec")
+public class CodecProperties {
+    // 超过阈值(字节)的值才压缩
+    private CompressionType compression = CompressionType.LZ4;
+    private int compressionThreshold = 1024;
+    // 是否以紧凑格式写入；滚动升级时先全部节点部署(只读新格式)，再打开写入
+    private boolean writeCompact = true;
+    // RedisTemplate 的值序列化方式
+    private TemplateSerializer templateSerializer = TemplateSerializer.JDK;
+
+    public enum TemplateSerializer {
+        JDK,
+        COMPACT
+    }
+}
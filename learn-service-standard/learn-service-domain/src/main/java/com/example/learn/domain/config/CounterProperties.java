@@ -0,0 +1,17 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.counter")
+public class CounterProperties {
+    // 本地累计的增量多久刷新到Redis一次(毫秒)
+    private long flushInterval = 1000;
+    // 每个逻辑计数器拆分的Redis键个数，1 表示不拆分(直接使用原key)；修改后已有计数需要迁移
+    private int shards = 1;
+    // 每次管道发送的最大命令数
+    private int flushBatchSize = 500;
+    // 关闭时刷新失败的重试次数
+    private int shutdownRetries = 3;
+}
@@ -0,0 +1,15 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.fanout")
+public class FanoutProperties {
+    // 集群模式下并行执行各节点子批次的线程数
+    private int threads = 8;
+    // 任务队列长度，满时在调用线程上执行
+    private int queueCapacity = 256;
+    // 槽位与节点对应关系的刷新间隔(毫秒)，迁移期间分组不准只影响并行度，命令仍由客户端按 MOVED 重定向
+    private long topologyRefresh = 30000;
+}
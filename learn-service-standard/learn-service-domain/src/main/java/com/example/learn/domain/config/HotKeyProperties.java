@@ -0,0 +1,29 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.hotkey")
+public class HotKeyProperties {
+    // 是否采样统计热点key
+    private boolean enabled = true;
+    // 采样比例(0~1]，统计值按比例放大为估算访问次数
+    private double sampleRate = 0.01;
+    // 统计窗口(毫秒)，每个窗口结束后重新计数，上一个窗口的结果保留用于查询
+    private long window = 10000;
+    // Count-Min Sketch 每行的计数器个数(向上取2的幂)
+    private int sketchWidth = 2048;
+    // Count-Min Sketch 的行数(哈希函数个数)
+    private int sketchDepth = 4;
+    // 每个节点保留的热点key个数
+    private int topK = 20;
+    // 是否将热点key自动提升到进程内缓存
+    private boolean promote = false;
+    // 一个窗口内估算访问次数达到该值时提升
+    private long promoteThreshold = 5000;
+    // 提升后的值在进程内缓存的时间(毫秒)，即其他节点写入后最多读到旧值的时间
+    private long promoteTtl = 1000;
+    // 进程内缓存的最大条目数
+    private long maxPromoted = 1000;
+}
@@ -0,0 +1,25 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.loading")
+public class LoadingProperties {
+    // 提前刷新系数(XFetch 的 beta)，越大越早刷新，0 表示只在到期后刷新
+    private double beta = 1.0;
+    // 过期时间随机浮动的比例，避免同批写入的key同时过期
+    private double ttlJitter = 0.1;
+    // 逻辑过期后仍可返回旧值的时间(毫秒)，期间由一个请求在后台回源
+    private long staleTtl = 60000;
+    // 回源互斥锁的过期时间(毫秒)，应大于回源耗时
+    private long lockTtl = 10000;
+    // 冷缓存时未抢到锁的请求等待回源结果的最长时间(毫秒)，超时后自行回源
+    private long lockWait = 3000;
+    // 等待期间轮询缓存的间隔(毫秒)
+    private long pollInterval = 50;
+    // 后台刷新线程数
+    private int refreshThreads = 4;
+    // 后台刷新任务队列长度，满时放弃本次刷新(继续返回旧值)
+    private int refreshQueueCapacity = 256;
+}
@@ -0,0 +1,26 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.redisson.api.LocalCachedMapOptions;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.local-map")
+public class LocalCachedMapProperties {
+    // 以这些前缀开头的Hash在所有节点上都走 RLocalCachedMap 读写，保证跨节点失效
+    private List<String> keyPrefixes = new ArrayList<>();
+    // 最多同时保留的 RLocalCachedMap 实例数(每个实例一个订阅)，超出时淘汰最久未使用的实例
+    private long maxMaps = 1000;
+    // 每个Hash本地最多缓存的项数，0表示不限制
+    private int cacheSize = 1000;
+    private LocalCachedMapOptions.EvictionPolicy evictionPolicy = LocalCachedMapOptions.EvictionPolicy.LRU;
+    private LocalCachedMapOptions.SyncStrategy syncStrategy = LocalCachedMapOptions.SyncStrategy.INVALIDATE;
+    private LocalCachedMapOptions.ReconnectionStrategy reconnectionStrategy = LocalCachedMapOptions.ReconnectionStrategy.CLEAR;
+    // 本地条目存活时间(秒)，0表示不限制
+    private long timeToLive = 300;
+    // 本地条目最大空闲时间(秒)，0表示不限制
+    private long maxIdle = 0;
+}
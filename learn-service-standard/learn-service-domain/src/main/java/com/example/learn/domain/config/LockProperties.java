@@ -0,0 +1,13 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.lock")
+public class LockProperties {
+    // 获取分布式锁前先获取该锁键的本地锁，同一节点上同一把锁同时只有一个线程向Redis竞争
+    private boolean localStriping = false;
+    // 防护令牌计数器key的后缀
+    private String fenceSuffix = ":fence";
+}
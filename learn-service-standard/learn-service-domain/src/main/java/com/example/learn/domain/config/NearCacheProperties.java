@@ -0,0 +1,17 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.near")
+public class NearCacheProperties {
+    // 是否启用进程内L1缓存，关闭时所有读写直接透传到Redis
+    private boolean enabled = false;
+    // L1最大条目数
+    private long maximumSize = 10000;
+    // L1条目写入后的存活时间(秒)，兜底未收到失效消息的情况
+    private long expireAfterWrite = 60;
+    // 跨节点失效消息使用的Topic
+    private String topic = "learn:near-cache:invalidation";
+}
@@ -0,0 +1,23 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.rate-limit")
+public class RateLimitProperties {
+    // 每次向Redis租用的许可数下限
+    private long minLease = 1;
+    // 每次向Redis租用的许可数上限
+    private long maxLease = 100;
+    // 单次租约不超过窗口上限的比例，避免一个节点占用全部许可
+    private double maxLeaseRatio = 0.1;
+    // 期望的租约消耗时间(毫秒)，消耗更快时加大租约，明显更慢时减小
+    private long refillInterval = 100;
+    // Redis 不可用时是否放行
+    private boolean failOpen = true;
+    // 本地限流器个数上限(按 key/上限/窗口 区分)
+    private long maxLimiters = 10000;
+    // 本地限流器空闲多久后移除(秒)
+    private long idleExpire = 600;
+}
@@ -0,0 +1,38 @@
+package com.example.learn.domain.config;
+
+import com.example.learn.domain.codec.CompactRedisSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+@Configuration
+public class RedisTemplateConfig {
+
+    @Bean
+    @Primary
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, CodecProperties codecProperties) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        // key 保持默认的 JDK 序列化，避免已有的key无法命中
+        if (codecProperties.getTemplateSerializer() == CodecProperties.TemplateSerializer.COMPACT) {
+            CompactRedisSerializer serializer = new CompactRedisSerializer(codecProperties.getCompression(),
+                    codecProperties.getCompressionThreshold(), codecProperties.isWriteCompact(), getClass().getClassLoader());
+            template.setValueSerializer(serializer);
+            template.setHashValueSerializer(serializer);
+        }
+        return template;
+    }
+
+    /**
+     * Set/List/ZSet 元素按字节匹配，始终使用 JDK 序列化(与紧凑格式切换前的数据一致)，紧凑格式只用于值和Hash值
+     */
+    @Bean
+    public RedisTemplate<String, Object> elementRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        return template;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.learn.domain.config;
 
+import com.example.learn.domain.codec.CompactCodec;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
@@ -18,7 +19,7 @@ import java.util.function.Consumer;
 public class RedissonConfig {
 
     @Bean(destroyMethod = "shutdown")
-    public RedissonClient redissonClient(RedissonProperties properties) {
+    public RedissonClient redissonClient(RedissonProperties properties, CodecProperties codecProperties) {
         Config config = new Config();
 
         // 应用通用配置
@@ -26,6 +27,12 @@ public class RedissonConfig {
         applyIfNotNull(properties.getConfig().getNettyThreads(), config::setNettyThreads);
         applyIfNotNull(properties.getConfig().getCodec(), codecClass -> {
             try {
+                if (CompactCodec.class.equals(codecClass)) {
+                    // 紧凑编码的压缩参数来自 learn.cache.codec
+                    config.setCodec(new CompactCodec(codecProperties.getCompression(), codecProperties.getCompressionThreshold(),
+                            codecProperties.isWriteCompact(), null));
+                    return;
+                }
                 config.setCodec(codecClass.getDeclaredConstructor().newInstance());
             } catch (Exception e) {
                 throw new IllegalArgumentException("Failed to instantiate codec: " + codecClass.getName() + e.getMessage());
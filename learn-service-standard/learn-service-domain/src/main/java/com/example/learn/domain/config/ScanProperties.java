@@ -0,0 +1,15 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.scan")
+public class ScanProperties {
+    // 默认每批读取个数(SCAN 的 COUNT / LRANGE 的分页大小)
+    private int batchSize = 500;
+    // 预取线程数
+    private int prefetchThreads = 4;
+    // 预取任务队列长度，满时退化为在调用线程同步读取
+    private int prefetchQueueCapacity = 256;
+}
@@ -0,0 +1,19 @@
+package com.example.learn.domain.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "learn.cache.write-behind")
+public class WriteBehindProperties {
+    // 定时刷新间隔(毫秒)，即写入最多延迟多久到达Redis
+    private long flushInterval = 1000;
+    // 每次管道发送的最大命令数，待写入的key达到该数量时立即触发刷新
+    private int flushBatchSize = 500;
+    // 最多缓存的不同key(Hash项)个数，同一个key重复写入只占一个位置
+    private int capacity = 10000;
+    // 队列满时写入方等待空位的最长时间(毫秒)，超时后改为直接写入Redis
+    private long offerTimeout = 100;
+    // 关闭时刷新失败的重试次数
+    private int shutdownRetries = 3;
+}
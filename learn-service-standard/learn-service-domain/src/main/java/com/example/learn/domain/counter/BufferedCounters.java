@@ -0,0 +1,214 @@
+package com.example.learn.domain.counter;
+
+import com.example.learn.domain.batch.CacheBatch;
+import com.example.learn.domain.batch.FlushScheduler;
+import com.example.learn.domain.batch.KeyResult;
+import com.example.learn.domain.batch.RedisTemplateBatch;
+import com.example.learn.domain.cache.NearCache;
+import com.example.learn.domain.config.CounterProperties;
+import com.example.learn.domain.metrics.CacheMetrics;
+import io.micrometer.core.instrument.Gauge;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写缓冲计数器
+ * 增量先累计在本地 LongAdder(内部按线程分段，高并发下没有CAS竞争)，定时通过管道批量 INCRBY/HINCRBY 到Redis
+ * 逻辑计数器可拆分为 N 个Redis键(key#0 .. key#N-1)，每次刷新随机写入其中一个，读取时汇总，避免单个热点key
+ * 关闭时同步刷新剩余增量，失败的增量会放回本地在下次刷新时重试
+ * 代价：Redis 中的值最多落后 flushInterval，进程异常退出时未刷新的增量会丢失
+ */
+@Slf4j
+@Component
+public class BufferedCounters {
+    // 指标中的 client 标签
+    private static final String CLIENT = "redis-template";
+    private static final String SHARD_SEPARATOR = "#";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private CounterProperties properties;
+
+    private final Map<Counter, LongAdder> pending = new ConcurrentHashMap<>();
+    // 从 pending 中移除的空闲计数器，移除前拿到引用的线程可能仍会写入，下次刷新时再收集一次
+    private final ConcurrentLinkedQueue<Map.Entry<Counter, LongAdder>> retired = new ConcurrentLinkedQueue<>();
+
+    private FlushScheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = new FlushScheduler("counter", properties.getFlushInterval(), this::flush);
+        Gauge.builder("learn.cache.counter.pending", pending, Map::size).register(metrics.getRegistry());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (scheduler.shutdown(properties.getShutdownRetries())) {
+            return;
+        }
+        pending.forEach((counter, adder) -> {
+            long delta = adder.sum();
+            if (delta != 0) {
+                log.error("Failed to flush counter on shutdown, key: {}, field: {}, delta: {}", counter.getKey(), counter.getField(), delta);
+            }
+        });
+    }
+
+    /**
+     * 累计增量
+     * @param key 键
+     * @param delta 增量，可以为负
+     */
+    public void add(String key, long delta) {
+        pending.computeIfAbsent(new Counter(key, null), k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * 累计Hash项的增量
+     * @param key 键
+     * @param field 项
+     * @param delta 增量，可以为负
+     */
+    public void add(String key, String field, long delta) {
+        pending.computeIfAbsent(new Counter(key, field), k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * 读取计数(汇总所有分片)，不包含尚未刷新的本地增量
+     * @param key 键
+     * @return 计数，失败时返回null
+     */
+    public Long get(String key) {
+        return get(key, null);
+    }
+
+    /**
+     * 读取Hash项的计数(汇总所有分片)，不包含尚未刷新的本地增量
+     * @param key 键
+     * @param field 项，为null时读取字符串计数
+     * @return 计数，失败时返回null
+     */
+    public Long get(String key, String field) {
+        try {
+            byte[] rawField = field == null ? null : serialize(redisTemplate.getHashKeySerializer(), field);
+            // INCRBY/HINCRBY 写入的是整数字符串，不能用模板的值序列化器反序列化，按字符串读取后解析
+            RedisCallback<Object> reads = connection -> {
+                for (int i = 0; i < properties.getShards(); i++) {
+                    byte[] rawKey = serialize(redisTemplate.getKeySerializer(), shardKey(key, i));
+                    if (field == null) {
+                        connection.stringCommands().get(rawKey);
+                    } else {
+                        connection.hashCommands().hGet(rawKey, rawField);
+                    }
+                }
+                return null;
+            };
+            List<Object> values = metrics.time(CLIENT, "counterGet", key,
+                    () -> redisTemplate.executePipelined(reads, StringRedisSerializer.UTF_8));
+            long total = 0;
+            for (Object value : values) {
+                total += value == null ? 0 : Long.parseLong((String) value);
+            }
+            return total;
+        } catch (Exception e) {
+            log.error("Failed to get counter, key: {}, field: {}", key, field, e);
+            return null;
+        }
+    }
+
+    /**
+     * 立即刷新所有本地增量
+     * @return 刷新失败(已放回本地)的计数器个数
+     */
+    public int flush() {
+        List<Counter> counters = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        for (Map.Entry<Counter, LongAdder> entry; (entry = retired.poll()) != null; ) {
+            collect(entry.getKey(), entry.getValue(), counters, deltas);
+        }
+        pending.forEach((counter, adder) -> {
+            if (!collect(counter, adder, counters, deltas) && pending.remove(counter, adder)) {
+                // 上个周期没有增量，移除以回收内存
+                retired.add(Map.entry(counter, adder));
+            }
+        });
+        return FlushScheduler.inBatches(counters.size(), properties.getFlushBatchSize(),
+                (from, to) -> flush(counters.subList(from, to), deltas.subList(from, to)));
+    }
+
+    private int flush(List<Counter> counters, List<Long> deltas) {
+        CacheBatch batch = new RedisTemplateBatch(redisTemplate, nearCache);
+        int shard = properties.getShards() > 1 ? ThreadLocalRandom.current().nextInt(properties.getShards()) : 0;
+        for (int i = 0; i < counters.size(); i++) {
+            Counter counter = counters.get(i);
+            String key = shardKey(counter.getKey(), shard);
+            if (counter.getField() == null) {
+                batch.incr(key, deltas.get(i));
+            } else {
+                batch.hincr(key, counter.getField(), deltas.get(i));
+            }
+        }
+        List<KeyResult<Object>> results = metrics.time(CLIENT, "counterFlush", counters.get(0).getKey(), batch::execute);
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isSuccess()) {
+                Counter counter = counters.get(i);
+                metrics.error(CLIENT, "counterFlush", counter.getKey(), results.get(i).getError());
+                log.warn("Failed to flush counter, will retry, key: {}, field: {}", counter.getKey(), counter.getField(), results.get(i).getError());
+                pending.computeIfAbsent(counter, k -> new LongAdder()).add(deltas.get(i));
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    // 取出并清零增量，返回是否有增量
+    private static boolean collect(Counter counter, LongAdder adder, List<Counter> counters, List<Long> deltas) {
+        long delta = adder.sumThenReset();
+        if (delta == 0) {
+            return false;
+        }
+        counters.add(counter);
+        deltas.add(delta);
+        return true;
+    }
+
+    private String shardKey(String key, int shard) {
+        return properties.getShards() > 1 ? key + SHARD_SEPARATOR + shard : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] serialize(RedisSerializer<?> serializer, Object value) {
+        return ((RedisSerializer<Object>) serializer).serialize(value);
+    }
+
+    @Value
+    private static class Counter {
+        String key;
+        String field;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.learn.domain.hotkey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch 频率估算
+ * depth 行 * width 列的计数器，每行用不同的哈希选一列累加，估算值取各行最小值(只会高估，不会低估)
+ * 内存固定为 depth * width 个 long，与key的个数无关
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 每行的计数器个数，向上取2的幂
+     * @param depth 行数
+     */
+    public CountMinSketch(int width, int depth) {
+        int size = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(size * depth);
+    }
+
+    /**
+     * 累加一次并返回累加后的估算值
+     * @param item 元素
+     * @return 估算的出现次数
+     */
+    public long add(String item) {
+        int h1 = spread(item.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * (mask + 1) + ((h1 + i * h2) & mask);
+            min = Math.min(min, counters.incrementAndGet(index));
+        }
+        return min;
+    }
+
+    /**
+     * 估算出现次数
+     * @param item 元素
+     * @return 估算的出现次数
+     */
+    public long estimate(String item) {
+        int h1 = spread(item.hashCode());
+        int h2 = spread(h1 ^ 0x9E3779B9) | 1;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            min = Math.min(min, counters.get(i * (mask + 1) + ((h1 + i * h2) & mask)));
+        }
+        return min;
+    }
+
+    // murmur3 的 fmix32，String.hashCode 低位分布较差
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
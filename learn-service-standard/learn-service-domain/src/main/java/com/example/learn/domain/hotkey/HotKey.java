@@ -0,0 +1,18 @@
+package com.example.learn.domain.hotkey;
+
+import lombok.Value;
+
+/**
+ * 热点key统计结果
+ */
+@Value
+public class HotKey {
+    // 键
+    String key;
+    // 所在节点(host:port)，非集群模式为 standalone
+    String node;
+    // 窗口内估算的访问次数(采样计数按采样比例放大)
+    long count;
+    // 当前是否已提升到进程内缓存
+    boolean promoted;
+}
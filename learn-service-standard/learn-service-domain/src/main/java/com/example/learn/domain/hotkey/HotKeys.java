@@ -0,0 +1,275 @@
+package com.example.learn.domain.hotkey;
+
+import com.example.learn.domain.cache.EntryKey;
+import com.example.learn.domain.cluster.ClusterFanout;
+import com.example.learn.domain.config.HotKeyProperties;
+import com.example.learn.domain.metrics.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 热点key探测
+ * 按 sampleRate 对读取采样，按key所在节点分别用 Count-Min Sketch 估算频率并维护 Top-K，统计按窗口滚动
+ * 开启 promote 时，窗口内估算访问次数超过阈值的key提升到短TTL的进程内缓存，其读取不再访问Redis
+ * 本节点的写入/删除会立即失效进程内缓存，其他节点的写入最多在 promoteTtl 后可见
+ */
+@Slf4j
+@Component
+public class HotKeys {
+    @Autowired
+    private HotKeyProperties properties;
+
+    @Autowired
+    private ClusterFanout fanout;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    // 缓存过提升值的命名空间，按key失效时对每个命名空间构造条目逐个失效
+    private final Set<String> namespaces = ConcurrentHashMap.newKeySet();
+
+    private volatile Window current = new Window(System.currentTimeMillis());
+    private volatile Window previous;
+
+    // 当前被提升的key，持续热点时在每次采样时续期
+    private Cache<String, Boolean> promotedKeys;
+    // 被提升的key的值
+    private Cache<EntryKey, Object> values;
+    private Counter promotions;
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled() || !properties.isPromote()) {
+            return;
+        }
+        promotedKeys = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPromoted())
+                .expireAfterWrite(properties.getWindow() * 2, TimeUnit.MILLISECONDS)
+                .build();
+        values = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxPromoted())
+                .expireAfterWrite(properties.getPromoteTtl(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), values, "hot-key-cache");
+        promotions = Counter.builder("learn.cache.hotkey.promotions").register(metrics.getRegistry());
+        Gauge.builder("learn.cache.hotkey.promoted", promotedKeys, Cache::estimatedSize).register(metrics.getRegistry());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // ============================= 读取 ============================
+
+    /**
+     * 采样一次读取，key已被提升时从进程内缓存读取，否则通过 loader 读取Redis
+     * 回源结果为null时不缓存
+     * @param namespace 命名空间(不同序列化方式的客户端互相隔离)
+     * @param key 键
+     * @param field 项 普通缓存传null
+     * @param slotOf 键的槽位，仅在集群模式且命中采样时计算
+     * @param loader 读取Redis
+     * @return 值
+     */
+    public Object get(String namespace, String key, String field, ToIntFunction<String> slotOf, Supplier<Object> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        record(key, slotOf);
+        if (values == null || promotedKeys.getIfPresent(key) == null) {
+            return loader.get();
+        }
+        namespaces.add(namespace);
+        return values.get(new EntryKey(namespace, key, field), k -> loader.get());
+    }
+
+    /**
+     * 采样一次访问(不涉及进程内缓存的读写也可以调用，用于统计)
+     * @param key 键
+     * @param slotOf 键的槽位
+     */
+    public void record(String key, ToIntFunction<String> slotOf) {
+        if (!properties.isEnabled() || ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        try {
+            String node = fanout.nodeOf(key, slotOf);
+            NodeStats stats = window().nodes.computeIfAbsent(node,
+                    n -> new NodeStats(properties.getSketchWidth(), properties.getSketchDepth(), properties.getTopK()));
+            long sampled = stats.sketch.add(key);
+            stats.offer(key, sampled);
+            if (promotedKeys != null && scale(sampled) >= properties.getPromoteThreshold()) {
+                promote(key, node, scale(sampled));
+            }
+        } catch (Exception e) {
+            log.error("Failed to record hot key sample, key: {}", key, e);
+        }
+    }
+
+    // ============================= 失效 ============================
+
+    /**
+     * 失效进程内缓存中的整个key(含其下所有Hash项)
+     * @param keys 键
+     */
+    public void invalidate(List<String> keys) {
+        if (values == null || values.estimatedSize() == 0) {
+            return;
+        }
+        for (String namespace : namespaces) {
+            keys.forEach(key -> values.invalidate(new EntryKey(namespace, key, null)));
+        }
+        Set<String> keySet = new HashSet<>(keys);
+        values.asMap().keySet().removeIf(e -> e.getField() != null && keySet.contains(e.getKey()));
+    }
+
+    /**
+     * 失效进程内缓存中Hash的指定项
+     * @param key 键
+     * @param fields 项
+     */
+    public void invalidateFields(String key, List<String> fields) {
+        if (values == null || values.estimatedSize() == 0) {
+            return;
+        }
+        for (String namespace : namespaces) {
+            fields.forEach(field -> values.invalidate(new EntryKey(namespace, key, field)));
+        }
+    }
+
+    // ============================= 统计 ============================
+
+    /**
+     * 上一个完整窗口的统计，尚未有完整窗口时返回null
+     */
+    public Snapshot completed() {
+        window();
+        Window window = previous;
+        return window == null ? null : snapshot(window);
+    }
+
+    /**
+     * 当前窗口(未结束)的统计
+     */
+    public Snapshot current() {
+        return snapshot(window());
+    }
+
+    /**
+     * 当前被提升到进程内缓存的key
+     */
+    public Set<String> promoted() {
+        return promotedKeys == null ? Collections.emptySet() : new HashSet<>(promotedKeys.asMap().keySet());
+    }
+
+    private void promote(String key, String node, long count) {
+        if (promotedKeys.asMap().put(key, Boolean.TRUE) == null) {
+            promotions.increment();
+            log.info("Hot key promoted to local cache, key: {}, node: {}, estimated count: {}", key, node, count);
+        }
+    }
+
+    // 超过窗口长度时滚动，上一个窗口保留用于查询
+    private Window window() {
+        Window window = current;
+        long now = System.currentTimeMillis();
+        if (now - window.start < properties.getWindow()) {
+            return window;
+        }
+        synchronized (this) {
+            if (current == window) {
+                previous = window;
+                current = new Window(now);
+            }
+            return current;
+        }
+    }
+
+    private Snapshot snapshot(Window window) {
+        Set<String> promotedNow = promoted();
+        Map<String, List<HotKey>> nodes = new TreeMap<>();
+        window.nodes.forEach((node, stats) -> {
+            List<HotKey> keys = new ArrayList<>();
+            stats.top().forEach((key, sampled) -> keys.add(new HotKey(key, node, scale(sampled), promotedNow.contains(key))));
+            keys.sort(Comparator.comparingLong(HotKey::getCount).reversed());
+            nodes.put(node, keys);
+        });
+        return new Snapshot(window.start, nodes);
+    }
+
+    private long scale(long sampled) {
+        return (long) (sampled / properties.getSampleRate());
+    }
+
+    /**
+     * 一个窗口的统计结果
+     */
+    @Value
+    public static class Snapshot {
+        // 窗口开始时间(毫秒时间戳)
+        long start;
+        // 节点 -> 按估算访问次数降序的热点key
+        Map<String, List<HotKey>> nodes;
+    }
+
+    private static class Window {
+        final long start;
+        final Map<String, NodeStats> nodes = new ConcurrentHashMap<>();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+
+    // 单个节点的频率估算与 Top-K，Top-K 只在采样时更新，K 很小，直接线性查找最小值
+    private static class NodeStats {
+        final CountMinSketch sketch;
+        private final int capacity;
+        private final Map<String, Long> top = new HashMap<>();
+
+        NodeStats(int width, int depth, int capacity) {
+            this.sketch = new CountMinSketch(width, depth);
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(String key, long count) {
+            if (top.containsKey(key) || top.size() < capacity) {
+                top.put(key, count);
+                return;
+            }
+            Map.Entry<String, Long> min = Collections.min(top.entrySet(), Map.Entry.comparingByValue());
+            if (count > min.getValue()) {
+                top.remove(min.getKey());
+                top.put(key, count);
+            }
+        }
+
+        synchronized Map<String, Long> top() {
+            return new HashMap<>(top);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.learn.domain.hotkey;
+
+import com.example.learn.domain.config.HotKeyProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点key查询 GET /actuator/hotkeys
+ * 返回上一个完整窗口和当前窗口中各节点的 Top-K 热点key，以及当前被提升到进程内缓存的key
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+    @Autowired
+    private HotKeys hotKeys;
+
+    @Autowired
+    private HotKeyProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotKeys.isEnabled());
+        result.put("sampleRate", properties.getSampleRate());
+        result.put("window", properties.getWindow());
+        result.put("completed", hotKeys.completed());
+        result.put("current", hotKeys.current());
+        result.put("promoted", hotKeys.promoted());
+        return result;
+    }
+}
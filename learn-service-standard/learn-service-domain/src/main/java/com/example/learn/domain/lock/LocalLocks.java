@@ -0,0 +1,92 @@
+package com.example.learn.domain.lock;
+
+import com.example.learn.domain.config.LockProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分布式锁前的本地锁
+ * 同一节点上竞争同一把分布式锁的线程先在本地排队，只有拿到本地锁的线程才去 Redis 竞争，
+ * 避免每个线程都轮询 Redis 和订阅解锁消息
+ * 每个锁键一把本地锁，不同的键互不等待；按引用计数创建和回收，没有线程在排队或竞争时不占用内存
+ * 本地锁只在向 Redis 竞争期间持有，拿到(或没拿到)分布式锁后立即释放
+ */
+@Component
+public class LocalLocks {
+    @Autowired
+    private LockProperties properties;
+
+    private final Map<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return properties.isLocalStriping();
+    }
+
+    /**
+     * 获取锁键对应的本地锁，成功后须调用 release
+     * @param lockKey 锁键
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 中断异常
+     */
+    public boolean tryAcquire(String lockKey, long timeout, TimeUnit unit) throws InterruptedException {
+        KeyLock keyLock = locks.compute(lockKey, (k, existing) -> {
+            KeyLock lock = existing == null ? new KeyLock() : existing;
+            lock.refs++;
+            return lock;
+        });
+        boolean acquired = false;
+        try {
+            acquired = keyLock.lock.tryLock(timeout, unit);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                dereference(lockKey);
+            }
+        }
+    }
+
+    /**
+     * 释放 tryAcquire 获取的本地锁
+     * @param lockKey 锁键
+     */
+    public void release(String lockKey) {
+        KeyLock keyLock = locks.get(lockKey);
+        if (keyLock == null || !keyLock.lock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Local lock not held by current thread, lockKey: " + lockKey);
+        }
+        keyLock.lock.unlock();
+        dereference(lockKey);
+    }
+
+    /**
+     * 当前有线程持有或等待的本地锁个数
+     */
+    public int size() {
+        return locks.size();
+    }
+
+    /**
+     * 防护令牌计数器的key
+     */
+    public String fenceKey(String lockKey) {
+        return lockKey + properties.getFenceSuffix();
+    }
+
+    // 最后一个使用者离开时移除
+    private void dereference(String lockKey) {
+        locks.computeIfPresent(lockKey, (k, lock) -> --lock.refs == 0 ? null : lock);
+    }
+
+    private static class KeyLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        // 持有和等待的线程数，只在 ConcurrentHashMap 的 compute 中修改
+        private int refs;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.learn.domain.metrics;
+
+import com.example.learn.domain.config.CacheMetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Redis 操作指标
+ * learn.cache.operation  每个操作的耗时(带百分位直方图)，标签 client/operation/prefix
+ * learn.cache.errors     操作异常次数，标签 client/operation/prefix/exception
+ * 工具类会吞掉异常并返回 false/null，因此被捕获的异常需要在 catch 中调用 error 记录
+ */
+@Component
+public class CacheMetrics {
+    public static final String OPERATION_METRIC = "learn.cache.operation";
+    public static final String ERROR_METRIC = "learn.cache.errors";
+
+    private static final String NO_PREFIX = "none";
+    private static final String OTHER_PREFIX = "other";
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> registryProvider;
+
+    @Autowired
+    private CacheMetricsProperties properties;
+
+    private MeterRegistry registry;
+    private final Set<String> prefixes = ConcurrentHashMap.newKeySet();
+    // 按 client/operation/prefix 缓存的计时器和异常计数器，避免每次调用都构建并在注册表中查找
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> errors = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        registry = registryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 计时执行，未捕获的异常记为错误后继续抛出
+     * @param client 客户端(redis-template / redisson)
+     * @param operation 操作名
+     * @param key 键，可以是 String、String[]、Collection 或 Map(取第一个key)
+     * @param call Redis 调用
+     * @return 调用结果
+     */
+    public <T> T time(String client, String operation, Object key, Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        String prefix = prefix(key);
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            error(client, operation, prefix, e);
+            throw e;
+        } finally {
+            sample.stop(timer(client, operation, prefix));
+        }
+    }
+
+    public void time(String client, String operation, Object key, Runnable call) {
+        time(client, operation, key, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * 异步调用计时，从发起到完成为止，异常完成时记为错误
+     * @param client 客户端
+     * @param operation 操作名
+     * @param key 键
+     * @param call 发起异步调用，同步抛出的异常转换为异常完成的结果
+     * @return 调用结果
+     */
+    public <T> CompletionStage<T> timeAsync(String client, String operation, Object key, Supplier<? extends CompletionStage<T>> call) {
+        if (!properties.isEnabled()) {
+            return start(call);
+        }
+        String prefix = prefix(key);
+        Timer.Sample sample = Timer.start(registry);
+        return start(call).whenComplete((value, e) -> {
+            sample.stop(timer(client, operation, prefix));
+            if (e != null) {
+                error(client, operation, prefix, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    private static <T> CompletionStage<T> start(Supplier<? extends CompletionStage<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 开始计时，用于会抛出受检异常、无法使用 time 的调用
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, String client, String operation, Object key) {
+        if (properties.isEnabled()) {
+            sample.stop(timer(client, operation, prefix(key)));
+        }
+    }
+
+    /**
+     * 记录被捕获的异常
+     */
+    public void error(String client, String operation, Object key, Throwable e) {
+        if (properties.isEnabled()) {
+            error(client, operation, prefix(key), e);
+        }
+    }
+
+    private void error(String client, String operation, String prefix, Throwable e) {
+        String exception = e.getClass().getSimpleName();
+        errors.computeIfAbsent(new MeterKey(client, operation, prefix, exception), k -> Counter.builder(ERROR_METRIC)
+                .tag("client", client)
+                .tag("operation", operation)
+                .tag("prefix", prefix)
+                .tag("exception", exception)
+                .register(registry))
+                .increment();
+    }
+
+    private Timer timer(String client, String operation, String prefix) {
+        return timers.computeIfAbsent(new MeterKey(client, operation, prefix, null), k -> Timer.builder(OPERATION_METRIC)
+                .tag("client", client)
+                .tag("operation", operation)
+                .tag("prefix", prefix)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    /**
+     * 取key中第一个分隔符之前的部分作为前缀，超过上限的新前缀统一记为 other
+     */
+    String prefix(Object key) {
+        String first = firstKey(key);
+        if (first == null) {
+            return NO_PREFIX;
+        }
+        int index = first.indexOf(properties.getPrefixDelimiter());
+        if (index <= 0) {
+            return NO_PREFIX;
+        }
+        String prefix = first.substring(0, index);
+        if (prefixes.contains(prefix)) {
+            return prefix;
+        }
+        if (prefixes.size() >= properties.getMaxPrefixes()) {
+            return OTHER_PREFIX;
+        }
+        prefixes.add(prefix);
+        return prefix;
+    }
+
+    private String firstKey(Object key) {
+        if (key instanceof String) {
+            return (String) key;
+        }
+        if (key instanceof Object[]) {
+            Object[] keys = (Object[]) key;
+            return keys.length > 0 ? firstKey(keys[0]) : null;
+        }
+        if (key instanceof Collection) {
+            Collection<?> keys = (Collection<?>) key;
+            return keys.isEmpty() ? null : firstKey(keys.iterator().next());
+        }
+        if (key instanceof Map) {
+            return firstKey(((Map<?, ?>) key).keySet());
+        }
+        return null;
+    }
+
+    @Value
+    private static class MeterKey {
+        String client;
+        String operation;
+        String prefix;
+        String exception;
+    }
+}
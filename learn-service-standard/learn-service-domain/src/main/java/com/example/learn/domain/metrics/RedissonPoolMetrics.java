@@ -0,0 +1,97 @@
+package com.example.learn.domain.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Redisson 连接池指标 learn.cache.pool.connections，标签 state=active/idle/pending
+ * active  已建立且被占用的连接数
+ * idle    已建立且空闲的连接数
+ * pending 等待获取连接的请求数
+ * Redisson 没有公开连接池统计接口，这里通过反射读取内部状态(3.17.x)，读取失败时返回 NaN 而不影响业务
+ */
+@Slf4j
+@Component
+public class RedissonPoolMetrics {
+    public static final String POOL_METRIC = "learn.cache.pool.connections";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    private volatile boolean warned;
+
+    @PostConstruct
+    public void init() {
+        gauge("active", entry -> size(invoke(entry, "getAllConnections")) - size(invoke(entry, "getFreeConnections")));
+        gauge("idle", entry -> size(invoke(entry, "getFreeConnections")));
+        gauge("pending", entry -> ((Number) invoke(field(entry, "freeConnectionsCounter"), "queueSize")).doubleValue());
+    }
+
+    private void gauge(String state, ToDoubleFunction<Object> perEntry) {
+        Gauge.builder(POOL_METRIC, this, self -> self.sum(perEntry))
+                .tag("client", "redisson")
+                .tag("state", state)
+                .register(metrics.getRegistry());
+    }
+
+    // 累加所有节点(主、从)的连接池
+    private double sum(ToDoubleFunction<Object> perEntry) {
+        try {
+            double total = 0;
+            Object connectionManager = invoke(redissonClient, "getConnectionManager");
+            for (Object masterSlaveEntry : (Collection<?>) invoke(connectionManager, "getEntrySet")) {
+                for (Object entry : (Collection<?>) invoke(masterSlaveEntry, "getAllEntries")) {
+                    total += perEntry.applyAsDouble(entry);
+                }
+            }
+            return total;
+        } catch (Exception e) {
+            if (!warned) {
+                warned = true;
+                log.warn("Failed to read Redisson connection pool state, pool gauges will report NaN", e);
+            }
+            return Double.NaN;
+        }
+    }
+
+    private static double size(Object collection) {
+        return ((Collection<?>) collection).size();
+    }
+
+    private static Object invoke(Object target, String name) {
+        try {
+            Method method = target.getClass().getMethod(name);
+            method.setAccessible(true);
+            return method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to invoke " + name + " on " + target.getClass().getName(), e);
+        }
+    }
+
+    private static Object field(Object target, String name) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (NoSuchFieldException e) {
+                // 继续查找父类
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to read " + name + " on " + type.getName(), e);
+            }
+        }
+        throw new IllegalStateException("No field " + name + " on " + target.getClass().getName());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.learn.domain.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个限流key在本节点上的许可池
+ * 许可从 Redis 按批租用，本地逐个发放，热路径只有一次原子递减；许可用完后由一个线程去 Redis 续租，其他线程等待其结果
+ * 租约大小按本地消耗速度调整：在 refillInterval 内用完则加倍，明显用不完则减半，范围为 [minLease, maxLease]
+ * 本地剩余的许可在窗口结束时作废，因此全局发放总数不会超过窗口上限，节点间分配不均时可能略少于上限
+ */
+@Slf4j
+public class LeasedRateLimiter {
+
+    /**
+     * 向 Redis 申请许可
+     */
+    @FunctionalInterface
+    public interface Leaser {
+        /**
+         * @param permits 申请个数
+         * @return {实际发放个数, 窗口剩余毫秒}
+         */
+        long[] lease(long permits);
+    }
+
+    private final String key;
+    private final long windowMillis;
+    private final Leaser leaser;
+    private final long minLease;
+    private final long maxLease;
+    private final long refillIntervalNanos;
+    private final boolean failOpen;
+
+    private final AtomicLong permits = new AtomicLong();
+    // 本地许可的失效时间(nanoTime)，即当前窗口的结束时间
+    private volatile long expiresAt;
+    // 窗口内许可已发完或 Redis 不可用时，在此之前不再访问 Redis
+    private volatile long blockedUntil;
+    private volatile boolean blockedResult;
+
+    // 以下字段只在持有 this 锁时访问
+    private long leaseSize;
+    private long leasedAt;
+
+    public LeasedRateLimiter(String key, long limit, long windowMillis, Leaser leaser,
+                             long minLease, long maxLease, double maxLeaseRatio, long refillIntervalMillis, boolean failOpen) {
+        this.key = key;
+        this.windowMillis = windowMillis;
+        this.leaser = leaser;
+        this.maxLease = Math.max(1, Math.min(maxLease, (long) (limit * maxLeaseRatio)));
+        this.minLease = Math.max(1, Math.min(minLease, this.maxLease));
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillIntervalMillis);
+        this.failOpen = failOpen;
+        this.leaseSize = this.minLease;
+    }
+
+    /**
+     * 获取一个许可
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (now < expiresAt && decrement()) {
+            return true;
+        }
+        if (now < blockedUntil) {
+            return blockedResult;
+        }
+        return refill(now);
+    }
+
+    private boolean decrement() {
+        for (;;) {
+            long current = permits.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (permits.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private synchronized boolean refill(long now) {
+        // 等锁期间其他线程可能已经续租
+        if (now < expiresAt && decrement()) {
+            return true;
+        }
+        if (now < blockedUntil) {
+            return blockedResult;
+        }
+        adapt(now);
+        long[] lease;
+        try {
+            lease = leaser.lease(leaseSize);
+        } catch (Exception e) {
+            log.error("Failed to lease permits, key: {}", key, e);
+            block(now + refillIntervalNanos, failOpen);
+            return failOpen;
+        }
+        long windowEnd = now + TimeUnit.MILLISECONDS.toNanos(lease[1] > 0 ? lease[1] : windowMillis);
+        if (lease[0] <= 0) {
+            block(windowEnd, false);
+            return false;
+        }
+        permits.set(lease[0] - 1);
+        expiresAt = windowEnd;
+        leasedAt = now;
+        return true;
+    }
+
+    private void adapt(long now) {
+        if (leasedAt == 0) {
+            return;
+        }
+        boolean expiredUnused = now >= expiresAt && permits.get() > 0;
+        if (!expiredUnused && now - leasedAt < refillIntervalNanos) {
+            leaseSize = Math.min(maxLease, leaseSize * 2);
+        } else if (expiredUnused || now - leasedAt > refillIntervalNanos * 4) {
+            leaseSize = Math.max(minLease, leaseSize / 2);
+        }
+    }
+
+    private void block(long until, boolean result) {
+        permits.set(0);
+        blockedResult = result;
+        blockedUntil = until;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.learn.domain.ratelimit;
+
+import com.example.learn.domain.config.RateLimitProperties;
+import com.example.learn.domain.metrics.CacheMetrics;
+import com.example.learn.domain.script.LuaScript;
+import com.example.learn.domain.script.ScriptEngine;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.api.RScript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式限流器
+ * 全局计数保存在 Redis(固定窗口)，各节点按批租用许可后在本地发放，Redis 调用次数约为 请求数 / 租约大小
+ * 本地限流器按 key/上限/窗口 缓存，空闲后移除
+ */
+@Component
+public class RateLimiters {
+    // 指标中的 client 标签，租约通过 Redisson 执行脚本
+    private static final String CLIENT = "redisson";
+
+    @Autowired
+    private ScriptEngine scriptEngine;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private Cache<String, LeasedRateLimiter> limiters;
+
+    @PostConstruct
+    public void init() {
+        limiters = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxLimiters())
+                .expireAfterAccess(properties.getIdleExpire(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 获取一个许可
+     * @param key 限流键(如 rate:api:{apiKey})，同时是 Redis 中的计数键
+     * @param limit 窗口内的许可上限
+     * @param window 窗口长度
+     * @param unit 时间单位
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(String key, long limit, long window, TimeUnit unit) {
+        long windowMillis = unit.toMillis(window);
+        return limiters.get(key + "|" + limit + "|" + windowMillis, k -> create(key, limit, windowMillis)).tryAcquire();
+    }
+
+    private LeasedRateLimiter create(String key, long limit, long windowMillis) {
+        return new LeasedRateLimiter(key, limit, windowMillis, permits -> lease(key, limit, windowMillis, permits),
+                properties.getMinLease(), properties.getMaxLease(), properties.getMaxLeaseRatio(),
+                properties.getRefillInterval(), properties.isFailOpen());
+    }
+
+    private long[] lease(String key, long limit, long windowMillis, long permits) {
+        List<Long> result = metrics.time(CLIENT, "leasePermits", key,
+                () -> scriptEngine.<List<Long>>eval(LuaScript.LEASE_PERMITS, RScript.ReturnType.MULTI, key,
+                        scriptEngine.ttlArg(windowMillis), number(limit), number(permits)));
+        return new long[]{result.get(0), result.get(1)};
+    }
+
+    private static byte[] number(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.learn.domain.script;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Lua 脚本注册表
+ * SHA1 在本地计算，调用时统一走 EVALSHA，服务端缺失(NOSCRIPT)时由 ScriptEngine 重新加载
+ * 约定：KEYS[1] 为操作的键，涉及过期时间的脚本 ARGV[1] 为毫秒数(小于等于0表示不设置)
+ */
+public enum LuaScript {
+
+    // 写入多个Hash项并设置过期时间，ARGV[2..] 为 field/value 交替
+    HSET_EXPIRE(
+            "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "if tonumber(ARGV[1]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return 1"),
+
+    // 追加List元素并设置过期时间，返回List长度
+    RPUSH_EXPIRE(
+            "local len = 0 "
+                    + "for i = 2, #ARGV do len = redis.call('RPUSH', KEYS[1], ARGV[i]) end "
+                    + "if tonumber(ARGV[1]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return len"),
+
+    // 添加Set元素并设置过期时间，返回新增个数
+    SADD_EXPIRE(
+            "local count = 0 "
+                    + "for i = 2, #ARGV do count = count + redis.call('SADD', KEYS[1], ARGV[i]) end "
+                    + "if tonumber(ARGV[1]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return count"),
+
+    // 值与 ARGV[1] 相等时才删除，返回删除个数
+    COMPARE_AND_DELETE(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+                    + "return 0"),
+
+    // 读取值，存在时顺带刷新过期时间
+    GET_AND_EXPIRE(
+            "local value = redis.call('GET', KEYS[1]) "
+                    + "if value and tonumber(ARGV[1]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return value"),
+
+    // 固定窗口限流的批量租约：ARGV[2] 为窗口内上限，ARGV[3] 为申请个数，
+    // 返回 {实际发放个数, 窗口剩余毫秒}，窗口在第一次发放时开始
+    LEASE_PERMITS(
+            "local used = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "local granted = math.min(tonumber(ARGV[3]), tonumber(ARGV[2]) - used) "
+                    + "if granted <= 0 then return {0, redis.call('PTTL', KEYS[1])} end "
+                    + "if redis.call('INCRBY', KEYS[1], granted) == granted then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return {granted, redis.call('PTTL', KEYS[1])}"),
+
+    // 分块大值的过期时间：KEYS[1] 为清单键，KEYS[2..] 为各分块键(与清单同槽位)，
+    // 清单前17字节(类型与版本)仍等于 ARGV[3] 时清单设为 ARGV[1]、分块设为 ARGV[2] 毫秒后过期，返回 1；已被改写时返回 0
+    CHUNK_EXPIRE(
+            "if redis.call('GETRANGE', KEYS[1], 0, 16) ~= ARGV[3] then return 0 end "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[1]) "
+                    + "for i = 2, #KEYS do redis.call('PEXPIRE', KEYS[i], ARGV[2]) end "
+                    + "return 1"),
+
+    // 普通写入(ARGV[2] 为值)，原值是分块清单(17字节、首字节为1)时返回原清单，以便删除其分块，否则返回 nil
+    SET_RETURN_MANIFEST(
+            "local old = false "
+                    + "if redis.call('TYPE', KEYS[1]).ok == 'string' and redis.call('STRLEN', KEYS[1]) == 17 then "
+                    + "old = redis.call('GET', KEYS[1]) "
+                    + "if string.byte(old, 1) ~= 1 then old = false end end "
+                    + "if tonumber(ARGV[1]) > 0 then redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[1]) "
+                    + "else redis.call('SET', KEYS[1], ARGV[2]) end "
+                    + "return old"),
+
+    // 用 ARGV[1](DEL/UNLINK)删除同一槽位的多个键，返回 {删除个数, 各键原来的分块清单(不是清单时为空串)}
+    DELETE_RETURN_MANIFESTS(
+            "local result = {0} "
+                    + "for i = 1, #KEYS do "
+                    + "local manifest = '' "
+                    + "if redis.call('TYPE', KEYS[i]).ok == 'string' and redis.call('STRLEN', KEYS[i]) == 17 then "
+                    + "manifest = redis.call('GET', KEYS[i]) "
+                    + "if string.byte(manifest, 1) ~= 1 then manifest = '' end end "
+                    + "result[1] = result[1] + redis.call(ARGV[1], KEYS[i]) "
+                    + "result[i + 1] = manifest end "
+                    + "return result");
+
+    private final String source;
+    private final String sha1;
+
+    LuaScript(String source) {
+        this.source = source;
+        this.sha1 = sha1Hex(source);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getSha1() {
+        return sha1;
+    }
+
+    private static String sha1Hex(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.learn.domain.script;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.protocol.Encoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Lua 脚本执行器
+ * 统一使用 EVALSHA 调用 LuaScript 中注册的脚本，遇到 NOSCRIPT 时加载脚本后重试一次
+ * 参数均为已编码的字节，编码方式由调用方(RedisUtils / RedissonUtils)各自的序列化配置决定
+ */
+@Slf4j
+@Component
+public class ScriptEngine {
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    // ============================= Redisson ============================
+
+    /**
+     * 通过 Redisson 执行脚本
+     * @param script 脚本
+     * @param returnType 返回类型 INTEGER 返回 Long，VALUE 返回 byte[]
+     * @param key 键
+     * @param args 已编码的参数
+     * @return 脚本返回值
+     */
+    public <T> T eval(LuaScript script, RScript.ReturnType returnType, String key, byte[]... args) {
+        return eval(script, returnType, Collections.singletonList(key), args);
+    }
+
+    /**
+     * 通过 Redisson 执行多key脚本，按第一个key路由，集群模式下所有key须在同一槽位
+     * @param script 脚本
+     * @param returnType 返回类型 INTEGER 返回 Long，VALUE 返回 byte[]
+     * @param keys 键
+     * @param args 已编码的参数
+     * @return 脚本返回值
+     */
+    public <T> T eval(LuaScript script, RScript.ReturnType returnType, List<Object> keys, byte[]... args) {
+        RScript rScript = redissonClient.getScript(ByteArrayCodec.INSTANCE);
+        String key = (String) keys.get(0);
+        try {
+            return rScript.evalSha(key, RScript.Mode.READ_WRITE, script.getSha1(), returnType, keys, (Object[]) args);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            log.info("Lua script not cached on server, reloading: {}", script);
+            rScript.scriptLoad(script.getSource());
+            return rScript.evalSha(key, RScript.Mode.READ_WRITE, script.getSha1(), returnType, keys, (Object[]) args);
+        }
+    }
+
+    /**
+     * 通过 Redisson 异步执行脚本，遇到 NOSCRIPT 时异步加载后重试一次
+     * @param script 脚本
+     * @param returnType 返回类型 INTEGER 返回 Long，VALUE 返回 byte[]
+     * @param key 键
+     * @param args 已编码的参数
+     * @return 脚本返回值
+     */
+    public <T> CompletionStage<T> evalAsync(LuaScript script, RScript.ReturnType returnType, String key, byte[]... args) {
+        return evalAsync(script, returnType, Collections.singletonList(key), args);
+    }
+
+    /**
+     * 通过 Redisson 异步执行多key脚本，按第一个key路由，集群模式下所有key须在同一槽位
+     * @param script 脚本
+     * @param returnType 返回类型 INTEGER 返回 Long，VALUE 返回 byte[]
+     * @param keys 键
+     * @param args 已编码的参数
+     * @return 脚本返回值
+     */
+    public <T> CompletionStage<T> evalAsync(LuaScript script, RScript.ReturnType returnType, List<Object> keys, byte[]... args) {
+        RScript rScript = redissonClient.getScript(ByteArrayCodec.INSTANCE);
+        String key = (String) keys.get(0);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        rScript.<T>evalShaAsync(key, RScript.Mode.READ_WRITE, script.getSha1(), returnType, keys, (Object[]) args)
+                .whenComplete((value, e) -> {
+                    if (e == null) {
+                        result.complete(value);
+                        return;
+                    }
+                    if (!isNoScript(e)) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    log.info("Lua script not cached on server, reloading: {}", script);
+                    rScript.scriptLoadAsync(script.getSource())
+                            .thenCompose(sha -> rScript.<T>evalShaAsync(key, RScript.Mode.READ_WRITE, script.getSha1(), returnType, keys, (Object[]) args))
+                            .whenComplete((retried, ex) -> {
+                                if (ex == null) {
+                                    result.complete(retried);
+                                } else {
+                                    result.completeExceptionally(ex);
+                                }
+                            });
+                });
+        return result;
+    }
+
+    /**
+     * 使用 Redisson 编解码器编码值
+     */
+    public byte[] encode(Encoder encoder, Object value) {
+        ByteBuf buf = null;
+        try {
+            buf = encoder.encode(value);
+            return ByteBufUtil.getBytes(buf);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode value: " + value, e);
+        } finally {
+            if (buf != null) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * 使用 Redisson 编解码器解码值
+     */
+    public Object decode(Codec codec, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return decode(codec, Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * 使用 Redisson 编解码器解码缓冲区(如多个分块拼接成的 CompositeByteBuf)，解码后释放缓冲区
+     */
+    public Object decode(Codec codec, ByteBuf buf) {
+        try {
+            return codec.getValueDecoder().decode(buf, null);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to decode value", e);
+        } finally {
+            buf.release();
+        }
+    }
+
+    // ============================= RedisTemplate ============================
+
+    /**
+     * 通过 RedisTemplate 连接执行脚本
+     * @param script 脚本
+     * @param returnType 返回类型 INTEGER 返回 Long，VALUE 返回 byte[]
+     * @param key 键
+     * @param args 已序列化的参数
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T eval(LuaScript script, ReturnType returnType, String key, byte[]... args) {
+        byte[][] keysAndArgs = new byte[args.length + 1][];
+        keysAndArgs[0] = serialize(redisTemplate.getKeySerializer(), key);
+        System.arraycopy(args, 0, keysAndArgs, 1, args.length);
+        return (T) redisTemplate.execute((RedisCallback<Object>) connection -> {
+            try {
+                return connection.scriptingCommands().evalSha(script.getSha1(), returnType, 1, keysAndArgs);
+            } catch (RuntimeException e) {
+                if (!isNoScript(e)) {
+                    throw e;
+                }
+                log.info("Lua script not cached on server, reloading: {}", script);
+                connection.scriptingCommands().scriptLoad(script.getSource().getBytes(StandardCharsets.UTF_8));
+                return connection.scriptingCommands().evalSha(script.getSha1(), returnType, 1, keysAndArgs);
+            }
+        });
+    }
+
+    /**
+     * 使用 RedisTemplate 的序列化器序列化值
+     */
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(RedisSerializer<?> serializer, Object value) {
+        return ((RedisSerializer<Object>) serializer).serialize(value);
+    }
+
+    /**
+     * 过期时间参数(毫秒)
+     */
+    public byte[] ttlArg(long millis) {
+        return Long.toString(millis).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private boolean isNoScript(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
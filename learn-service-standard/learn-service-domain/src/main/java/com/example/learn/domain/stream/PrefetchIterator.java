@@ -0,0 +1,121 @@
+package com.example.learn.domain.stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 按批预取的迭代器
+ * 调用方消费当前批次时，后台线程从底层游标读取下一批，内存中最多保留两批数据
+ * 底层迭代器同一时刻只会被一个线程访问(下一批读取在上一批完成后才开始)
+ */
+@Slf4j
+public class PrefetchIterator<T> implements Iterator<T>, AutoCloseable {
+    private final Iterator<T> source;
+    private final int batchSize;
+    private final Executor executor;
+    private final AutoCloseable resource;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private CompletableFuture<List<T>> next;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * @param source 底层游标迭代器
+     * @param batchSize 每批读取个数
+     * @param executor 预取线程池，拒绝时退化为在调用线程同步读取
+     * @param resource 关闭时需要释放的资源，可以为null
+     */
+    public PrefetchIterator(Iterator<T> source, int batchSize, Executor executor, AutoCloseable resource) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.resource = resource;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetchAsync();
+        }
+        while (!current.hasNext()) {
+            if (next == null || closed) {
+                return false;
+            }
+            List<T> batch = await(next);
+            // 不足一批说明底层已读完，无需再预取
+            next = batch.size() < batchSize ? null : fetchAsync();
+            current = batch.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // 等待进行中的预取结束，避免与底层游标的关闭并发
+        if (next != null) {
+            next.handle((batch, e) -> null).join();
+            next = null;
+        }
+        if (resource != null) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.error("Failed to close cursor", e);
+            }
+        }
+    }
+
+    private CompletableFuture<List<T>> fetchAsync() {
+        try {
+            return CompletableFuture.supplyAsync(this::fetch, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(fetch());
+        }
+    }
+
+    private List<T> fetch() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && source.hasNext()) {
+            batch.add(source.next());
+        }
+        return batch;
+    }
+
+    private List<T> await(CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            next = null;
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.learn.domain.stream;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 按下标分页读取的迭代器(用于List的 LRANGE 分页)
+ * 遍历期间List被修改时，可能出现重复或遗漏的元素
+ */
+public class RangePageIterator<T> implements Iterator<T> {
+
+    /**
+     * 分页读取逻辑
+     */
+    @FunctionalInterface
+    public interface RangeLoader<T> {
+        /**
+         * @param start 开始下标(包含)
+         * @param end 结束下标(包含)
+         */
+        List<T> range(long start, long end);
+    }
+
+    private final RangeLoader<T> loader;
+    private final int pageSize;
+
+    private Iterator<T> current = Collections.emptyIterator();
+    private long offset;
+    private boolean exhausted;
+
+    public RangePageIterator(RangeLoader<T> loader, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.loader = loader;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            List<T> page = loader.range(offset, offset + pageSize - 1);
+            if (page == null || page.size() < pageSize) {
+                exhausted = true;
+            }
+            if (page == null) {
+                return false;
+            }
+            offset += page.size();
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.learn.domain.stream;
+
+import com.example.learn.domain.config.ScanProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 游标流工厂
+ * 将 SCAN 游标 / 分页迭代器包装为带预取的惰性 Stream，使用后需关闭(try-with-resources)以释放游标
+ */
+@Component
+public class ScanStreams {
+    @Autowired
+    private ScanProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getPrefetchThreads(), properties.getPrefetchThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getPrefetchQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "cache-prefetch-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 默认批大小，调用方传入小于等于0的批大小时使用
+     */
+    public int batchSize(int batchSize) {
+        return batchSize > 0 ? batchSize : properties.getBatchSize();
+    }
+
+    /**
+     * 包装为带预取的惰性 Stream
+     * @param source 底层迭代器
+     * @param batchSize 每批个数
+     * @param resource 关闭 Stream 时需要释放的资源，可以为null
+     * @return 顺序流
+     */
+    public <T> Stream<T> stream(Iterator<T> source, int batchSize, AutoCloseable resource) {
+        PrefetchIterator<T> iterator = new PrefetchIterator<>(source, batchSize(batchSize), executor, resource);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+}
@@ -1,17 +1,38 @@
 package com.example.learn.domain.utils;
 
+import com.example.learn.domain.batch.CacheBatch;
+import com.example.learn.domain.batch.KeyResult;
+import com.example.learn.domain.batch.RedisTemplateBatch;
+import com.example.learn.domain.cache.NearCache;
+import com.example.learn.domain.cluster.ClusterFanout;
+import com.example.learn.domain.cluster.ClusterSlots;
+import com.example.learn.domain.hotkey.HotKeys;
+import com.example.learn.domain.counter.BufferedCounters;
+import com.example.learn.domain.metrics.CacheMetrics;
+import com.example.learn.domain.script.LuaScript;
+import com.example.learn.domain.script.ScriptEngine;
+import com.example.learn.domain.writebehind.WriteBehindQueue;
+import com.example.learn.domain.stream.RangePageIterator;
+import com.example.learn.domain.stream.ScanStreams;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Redis 操作工具类
@@ -23,6 +44,41 @@ public class RedisUtils {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    // Set/List/ZSet 元素使用的模板，元素始终为旧格式
+    @Autowired
+    @Qualifier("elementRedisTemplate")
+    private RedisTemplate<String, Object> elementRedisTemplate;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private ScriptEngine scriptEngine;
+
+    @Autowired
+    private ScanStreams scanStreams;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private BufferedCounters counters;
+
+    @Autowired
+    private WriteBehindQueue writeBehind;
+
+    @Autowired
+    private ClusterFanout fanout;
+
+    @Autowired
+    private HotKeys hotKeys;
+
+    // 指标中的 client 标签
+    private static final String CLIENT = "redis-template";
+
+    // 近端缓存命名空间，与 RedissonUtils 的序列化方式不同，L1 中分开存放
+    private static final String NEAR_CACHE_NAMESPACE = "redis-template";
+
     // =============================common============================
 
     /**
@@ -32,15 +88,19 @@ public class RedisUtils {
      * @return
      */
     public boolean expire(String key, long time) {
-        try {
-            if (time > 0) {
-                redisTemplate.expire(key, time, TimeUnit.SECONDS);
+        return metrics.time(CLIENT, "expire", key, () -> {
+            try {
+                if (time > 0) {
+                    writeBehind.expire(key, TimeUnit.SECONDS.toMillis(time));
+                    redisTemplate.expire(key, time, TimeUnit.SECONDS);
+                }
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "expire", key, e);
+                log.error("Failed to set key expiration, key: {}", key, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set key expiration, key: {}", key, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -49,7 +109,7 @@ public class RedisUtils {
      * @return 时间(秒) 返回0代表为永久有效
      */
     public long getExpire(String key) {
-        return redisTemplate.getExpire(key, TimeUnit.SECONDS);
+        return metrics.time(CLIENT, "getExpire", key, () -> redisTemplate.getExpire(key, TimeUnit.SECONDS));
     }
 
     /**
@@ -58,31 +118,110 @@ public class RedisUtils {
      * @return true 存在 false不存在
      */
     public boolean hasKey(String key) {
-        try {
-            return redisTemplate.hasKey(key);
-        } catch (Exception e) {
-            log.error("Failed to check key existence, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hasKey", key, () -> {
+            try {
+                return redisTemplate.hasKey(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hasKey", key, e);
+                log.error("Failed to check key existence, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
-     * 删除缓存
+     * 删除缓存，集群模式下按槽位拆分后各节点并行删除
      * @param key 可以传一个值 或多个
      */
-    @SuppressWarnings("unchecked")
     public void del(String... key) {
-        if (key != null && key.length > 0) {
+        metrics.time(CLIENT, "del", key, () -> {
+            if (key != null && key.length > 0) {
+                try {
+                    for (String k : key) {
+                        writeBehind.discard(k);
+                    }
+                    if (key.length == 1) {
+                        redisTemplate.delete(key[0]);
+                    } else {
+                        fanout.sumBySlot(Arrays.asList(key), this::slot, keys -> count(redisTemplate.delete(keys)));
+                    }
+                    nearCache.invalidate(key);
+                } catch (Exception e) {
+                    metrics.error(CLIENT, "del", key, e);
+                    log.error("Failed to delete keys: {}", Arrays.toString(key), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 非阻塞删除(UNLINK)，大key的内存在服务端后台线程回收，集群模式下按槽位拆分后各节点并行执行
+     * @param key 可以传一个值 或多个
+     * @return 删除的个数，失败时返回0
+     */
+    public long unlink(String... key) {
+        if (key == null || key.length == 0) {
+            return 0;
+        }
+        return metrics.time(CLIENT, "unlink", key, () -> {
             try {
-                if (key.length == 1) {
-                    redisTemplate.delete(key[0]);
-                } else {
-                    redisTemplate.delete((Collection<String>) CollectionUtils.arrayToList(key));
+                for (String k : key) {
+                    writeBehind.discard(k);
                 }
+                long count = fanout.sumBySlot(Arrays.asList(key), this::slot, keys -> count(redisTemplate.unlink(keys)));
+                nearCache.invalidate(key);
+                return count;
             } catch (Exception e) {
-                log.error("Failed to delete keys: {}", Arrays.toString(key), e);
+                metrics.error(CLIENT, "unlink", key, e);
+                log.error("Failed to unlink keys: {}", Arrays.toString(key), e);
+                return 0L;
             }
+        });
+    }
+
+    /**
+     * 统计存在的key个数，集群模式下按槽位拆分后各节点并行执行
+     * @param keys 键
+     * @return 存在的个数，失败时返回0
+     */
+    public long exists(Collection<String> keys) {
+        if (CollectionUtils.isEmpty(keys)) {
+            return 0;
         }
+        return metrics.time(CLIENT, "exists", keys, () -> {
+            try {
+                return fanout.sumBySlot(keys, this::slot, slotKeys -> count(redisTemplate.countExistingKeys(slotKeys)));
+            } catch (Exception e) {
+                metrics.error(CLIENT, "exists", keys, e);
+                log.error("Failed to count existing keys: {}", keys, e);
+                return 0L;
+            }
+        });
+    }
+
+
+    /**
+     * 值与期望值相等时才删除(原子操作)
+     * @param key 键
+     * @param expected 期望值
+     * @return true 已删除 false 值不匹配或不存在
+     */
+    public boolean compareAndDelete(String key, Object expected) {
+        return metrics.time(CLIENT, "compareAndDelete", key, () -> {
+            try {
+                Long count = scriptEngine.eval(LuaScript.COMPARE_AND_DELETE, ReturnType.INTEGER, key,
+                        scriptEngine.serialize(redisTemplate.getValueSerializer(), expected));
+                if (count != null && count > 0) {
+                    nearCache.invalidate(key);
+                    return true;
+                }
+                return false;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "compareAndDelete", key, e);
+                log.error("Failed to compare and delete, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     // ============================String=============================
@@ -93,7 +232,26 @@ public class RedisUtils {
      * @return 值
      */
     public Object get(String key) {
-        return key == null ? null : redisTemplate.opsForValue().get(key);
+        return key == null ? null : nearCache.get(NEAR_CACHE_NAMESPACE, key,
+                () -> hotKeys.get(NEAR_CACHE_NAMESPACE, key, null, this::slot,
+                        () -> metrics.time(CLIENT, "get", key, () -> redisTemplate.opsForValue().get(key))));
+    }
+
+    /**
+     * 获取缓存并刷新过期时间(一次往返)
+     * @param key 键
+     * @param time 时间(秒) 小于等于0时只获取不刷新
+     * @return 值
+     */
+    public Object getAndExpire(String key, long time) {
+        if (key == null) {
+            return null;
+        }
+        return metrics.time(CLIENT, "getAndExpire", key, () -> {
+            byte[] raw = scriptEngine.eval(LuaScript.GET_AND_EXPIRE, ReturnType.VALUE, key,
+                    scriptEngine.ttlArg(TimeUnit.SECONDS.toMillis(time)));
+            return redisTemplate.getValueSerializer().deserialize(raw);
+        });
     }
 
     /**
@@ -103,13 +261,18 @@ public class RedisUtils {
      * @return true成功 false失败
      */
     public boolean set(String key, Object value) {
-        try {
-            redisTemplate.opsForValue().set(key, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set value, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "set", key, () -> {
+            try {
+                writeBehind.discard(key);
+                redisTemplate.opsForValue().set(key, value);
+                nearCache.invalidate(key);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "set", key, e);
+                log.error("Failed to set value, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -120,17 +283,22 @@ public class RedisUtils {
      * @return true成功 false 失败
      */
     public boolean set(String key, Object value, long time) {
-        try {
-            if (time > 0) {
-                redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
-            } else {
-                set(key, value);
+        return metrics.time(CLIENT, "set", key, () -> {
+            try {
+                if (time > 0) {
+                    writeBehind.discard(key);
+                    redisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
+                    nearCache.invalidate(key);
+                } else {
+                    set(key, value);
+                }
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "set", key, e);
+                log.error("Failed to set value with TTL, key: {}", key, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set value with TTL, key: {}", key, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -143,7 +311,11 @@ public class RedisUtils {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, delta);
+        return metrics.time(CLIENT, "incr", key, () -> {
+            long result = redisTemplate.opsForValue().increment(key, delta);
+            nearCache.invalidate(key);
+            return result;
+        });
     }
 
     /**
@@ -156,7 +328,11 @@ public class RedisUtils {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
-        return redisTemplate.opsForValue().increment(key, -delta);
+        return metrics.time(CLIENT, "decr", key, () -> {
+            long result = redisTemplate.opsForValue().increment(key, -delta);
+            nearCache.invalidate(key);
+            return result;
+        });
     }
 
     // ================================Map=================================
@@ -168,16 +344,18 @@ public class RedisUtils {
      * @return 值
      */
     public Object hget(String key, String item) {
-        return redisTemplate.opsForHash().get(key, item);
+        return nearCache.hget(NEAR_CACHE_NAMESPACE, key, item,
+                () -> hotKeys.get(NEAR_CACHE_NAMESPACE, key, item, this::slot,
+                        () -> metrics.time(CLIENT, "hget", key, () -> redisTemplate.opsForHash().get(key, item))));
     }
 
     /**
-     * 获取hashKey对应的所有键值
+     * 获取hashKey对应的所有键值(HGETALL)，大hash请使用 hScan
      * @param key 键
      * @return 对应的多个键值
      */
     public Map<Object, Object> hmget(String key) {
-        return redisTemplate.opsForHash().entries(key);
+        return metrics.time(CLIENT, "hgetall", key, () -> redisTemplate.opsForHash().entries(key));
     }
 
     /**
@@ -187,13 +365,18 @@ public class RedisUtils {
      * @return true 成功 false 失败
      */
     public boolean hmset(String key, Map<String, Object> map) {
-        try {
-            redisTemplate.opsForHash().putAll(key, map);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash values, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hmset", key, () -> {
+            try {
+                writeBehind.discard(key, map.keySet().toArray());
+                redisTemplate.opsForHash().putAll(key, map);
+                nearCache.invalidateFields(key, map.keySet().toArray());
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hmset", key, e);
+                log.error("Failed to set hash values, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -204,16 +387,24 @@ public class RedisUtils {
      * @return true成功 false失败
      */
     public boolean hmset(String key, Map<String, Object> map, long time) {
-        try {
-            redisTemplate.opsForHash().putAll(key, map);
-            if (time > 0) {
-                expire(key, time);
+        return metrics.time(CLIENT, "hmset", key, () -> {
+            try {
+                writeBehind.discard(key, map.keySet().toArray());
+                List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+                args.add(scriptEngine.ttlArg(TimeUnit.SECONDS.toMillis(time)));
+                map.forEach((item, value) -> {
+                    args.add(scriptEngine.serialize(redisTemplate.getHashKeySerializer(), item));
+                    args.add(scriptEngine.serialize(redisTemplate.getHashValueSerializer(), value));
+                });
+                scriptEngine.eval(LuaScript.HSET_EXPIRE, ReturnType.INTEGER, key, args.toArray(new byte[0][]));
+                nearCache.invalidateFields(key, map.keySet().toArray());
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hmset", key, e);
+                log.error("Failed to set hash values with TTL, key: {}", key, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash values with TTL, key: {}", key, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -224,13 +415,18 @@ public class RedisUtils {
      * @return true 成功 false失败
      */
     public boolean hset(String key, String item, Object value) {
-        try {
-            redisTemplate.opsForHash().put(key, item, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash field, key: {}, field: {}", key, item, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hset", key, () -> {
+            try {
+                writeBehind.discard(key, item);
+                redisTemplate.opsForHash().put(key, item, value);
+                nearCache.invalidateFields(key, item);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hset", key, e);
+                log.error("Failed to set hash field, key: {}, field: {}", key, item, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -242,16 +438,21 @@ public class RedisUtils {
      * @return true 成功 false失败
      */
     public boolean hset(String key, String item, Object value, long time) {
-        try {
-            redisTemplate.opsForHash().put(key, item, value);
-            if (time > 0) {
-                expire(key, time);
+        return metrics.time(CLIENT, "hset", key, () -> {
+            try {
+                writeBehind.discard(key, item);
+                scriptEngine.eval(LuaScript.HSET_EXPIRE, ReturnType.INTEGER, key,
+                        scriptEngine.ttlArg(TimeUnit.SECONDS.toMillis(time)),
+                        scriptEngine.serialize(redisTemplate.getHashKeySerializer(), item),
+                        scriptEngine.serialize(redisTemplate.getHashValueSerializer(), value));
+                nearCache.invalidateFields(key, item);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hset", key, e);
+                log.error("Failed to set hash field with TTL, key: {}, field: {}", key, item, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash field with TTL, key: {}, field: {}", key, item, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -260,11 +461,16 @@ public class RedisUtils {
      * @param item 项 可以使多个 不能为null
      */
     public void hdel(String key, Object... item) {
-        try {
-            redisTemplate.opsForHash().delete(key, item);
-        } catch (Exception e) {
-            log.error("Failed to delete hash fields, key: {}, fields: {}", key, Arrays.toString(item), e);
-        }
+        metrics.time(CLIENT, "hdel", key, () -> {
+            try {
+                writeBehind.discard(key, item);
+                redisTemplate.opsForHash().delete(key, item);
+                nearCache.invalidateFields(key, item);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hdel", key, e);
+                log.error("Failed to delete hash fields, key: {}, fields: {}", key, Arrays.toString(item), e);
+            }
+        });
     }
 
     /**
@@ -274,7 +480,7 @@ public class RedisUtils {
      * @return true 存在 false不存在
      */
     public boolean hHasKey(String key, String item) {
-        return redisTemplate.opsForHash().hasKey(key, item);
+        return metrics.time(CLIENT, "hHasKey", key, () -> redisTemplate.opsForHash().hasKey(key, item));
     }
 
     /**
@@ -285,7 +491,11 @@ public class RedisUtils {
      * @return
      */
     public double hincr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, by);
+        return metrics.time(CLIENT, "hincr", key, () -> {
+            double result = redisTemplate.opsForHash().increment(key, item, by);
+            nearCache.invalidateFields(key, item);
+            return result;
+        });
     }
 
     /**
@@ -296,23 +506,30 @@ public class RedisUtils {
      * @return
      */
     public double hdecr(String key, String item, double by) {
-        return redisTemplate.opsForHash().increment(key, item, -by);
+        return metrics.time(CLIENT, "hdecr", key, () -> {
+            double result = redisTemplate.opsForHash().increment(key, item, -by);
+            nearCache.invalidateFields(key, item);
+            return result;
+        });
     }
 
     // ============================set=============================
 
     /**
-     * 根据key获取Set中的所有值
+     * 根据key获取Set中的所有值(SMEMBERS)，大set请使用 sScan
      * @param key 键
      * @return
      */
     public Set<Object> sGet(String key) {
-        try {
-            return redisTemplate.opsForSet().members(key);
-        } catch (Exception e) {
-            log.error("Failed to get set members, key: {}", key, e);
-            return null;
-        }
+        return metrics.time(CLIENT, "sGet", key, () -> {
+            try {
+                return elementRedisTemplate.opsForSet().members(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sGet", key, e);
+                log.error("Failed to get set members, key: {}", key, e);
+                return null;
+            }
+        });
     }
 
     /**
@@ -322,12 +539,15 @@ public class RedisUtils {
      * @return true 存在 false不存在
      */
     public boolean sHasKey(String key, Object value) {
-        try {
-            return redisTemplate.opsForSet().isMember(key, value);
-        } catch (Exception e) {
-            log.error("Failed to check set membership, key: {}, value: {}", key, value, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "sHasKey", key, () -> {
+            try {
+                return elementRedisTemplate.opsForSet().isMember(key, value);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sHasKey", key, e);
+                log.error("Failed to check set membership, key: {}, value: {}", key, value, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -337,12 +557,15 @@ public class RedisUtils {
      * @return 成功个数
      */
     public long sSet(String key, Object... values) {
-        try {
-            return redisTemplate.opsForSet().add(key, values);
-        } catch (Exception e) {
-            log.error("Failed to add set elements, key: {}, values: {}", key, Arrays.toString(values), e);
-            return 0;
-        }
+        return metrics.time(CLIENT, "sSet", key, () -> {
+            try {
+                return elementRedisTemplate.opsForSet().add(key, values);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sSet", key, e);
+                log.error("Failed to add set elements, key: {}, values: {}", key, Arrays.toString(values), e);
+                return 0L;
+            }
+        });
     }
 
     /**
@@ -353,16 +576,16 @@ public class RedisUtils {
      * @return 成功个数
      */
     public long sSetAndTime(String key, long time, Object... values) {
-        try {
-            Long count = redisTemplate.opsForSet().add(key, values);
-            if (time > 0) {
-                expire(key, time);
+        return metrics.time(CLIENT, "sSetAndTime", key, () -> {
+            try {
+                Long count = scriptEngine.eval(LuaScript.SADD_EXPIRE, ReturnType.INTEGER, key, valueArgs(time, values));
+                return count;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sSetAndTime", key, e);
+                log.error("Failed to add set elements with TTL, key: {}, values: {}", key, Arrays.toString(values), e);
+                return 0L;
             }
-            return count;
-        } catch (Exception e) {
-            log.error("Failed to add set elements with TTL, key: {}, values: {}", key, Arrays.toString(values), e);
-            return 0;
-        }
+        });
     }
 
     /**
@@ -371,12 +594,15 @@ public class RedisUtils {
      * @return
      */
     public long sGetSetSize(String key) {
-        try {
-            return redisTemplate.opsForSet().size(key);
-        } catch (Exception e) {
-            log.error("Failed to get set size, key: {}", key, e);
-            return 0;
-        }
+        return metrics.time(CLIENT, "sGetSetSize", key, () -> {
+            try {
+                return elementRedisTemplate.opsForSet().size(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sGetSetSize", key, e);
+                log.error("Failed to get set size, key: {}", key, e);
+                return 0L;
+            }
+        });
     }
 
     /**
@@ -386,31 +612,37 @@ public class RedisUtils {
      * @return 移除的个数
      */
     public long setRemove(String key, Object... values) {
-        try {
-            Long count = redisTemplate.opsForSet().remove(key, values);
-            return count;
-        } catch (Exception e) {
-            log.error("Failed to remove set elements, key: {}, values: {}", key, Arrays.toString(values), e);
-            return 0;
-        }
+        return metrics.time(CLIENT, "setRemove", key, () -> {
+            try {
+                Long count = elementRedisTemplate.opsForSet().remove(key, values);
+                return count;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "setRemove", key, e);
+                log.error("Failed to remove set elements, key: {}, values: {}", key, Arrays.toString(values), e);
+                return 0L;
+            }
+        });
     }
 
     // ===============================list=================================
 
     /**
-     * 获取list缓存的内容
+     * 获取list缓存的内容，遍历大list请使用 lScan
      * @param key 键
      * @param start 开始
      * @param end 结束 0 到 -1代表所有值
      * @return
      */
     public List<Object> lGet(String key, long start, long end) {
-        try {
-            return redisTemplate.opsForList().range(key, start, end);
-        } catch (Exception e) {
-            log.error("Failed to get list range, key: {}, start: {}, end: {}", key, start, end, e);
-            return null;
-        }
+        return metrics.time(CLIENT, "lGet", key, () -> {
+            try {
+                return elementRedisTemplate.opsForList().range(key, start, end);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lGet", key, e);
+                log.error("Failed to get list range, key: {}, start: {}, end: {}", key, start, end, e);
+                return null;
+            }
+        });
     }
 
     /**
@@ -419,12 +651,15 @@ public class RedisUtils {
      * @return
      */
     public long lGetListSize(String key) {
-        try {
-            return redisTemplate.opsForList().size(key);
-        } catch (Exception e) {
-            log.error("Failed to get list size, key: {}", key, e);
-            return 0;
-        }
+        return metrics.time(CLIENT, "lGetListSize", key, () -> {
+            try {
+                return elementRedisTemplate.opsForList().size(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lGetListSize", key, e);
+                log.error("Failed to get list size, key: {}", key, e);
+                return 0L;
+            }
+        });
     }
 
     /**
@@ -434,12 +669,15 @@ public class RedisUtils {
      * @return
      */
     public Object lGetIndex(String key, long index) {
-        try {
-            return redisTemplate.opsForList().index(key, index);
-        } catch (Exception e) {
-            log.error("Failed to get list element by index, key: {}, index: {}", key, index, e);
-            return null;
-        }
+        return metrics.time(CLIENT, "lGetIndex", key, () -> {
+            try {
+                return elementRedisTemplate.opsForList().index(key, index);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lGetIndex", key, e);
+                log.error("Failed to get list element by index, key: {}, index: {}", key, index, e);
+                return null;
+            }
+        });
     }
 
     /**
@@ -449,13 +687,16 @@ public class RedisUtils {
      * @return
      */
     public boolean lSet(String key, Object value) {
-        try {
-            redisTemplate.opsForList().rightPush(key, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to add list element, key: {}, value: {}", key, value, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "lSet", key, () -> {
+            try {
+                elementRedisTemplate.opsForList().rightPush(key, value);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lSet", key, e);
+                log.error("Failed to add list element, key: {}, value: {}", key, value, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -466,16 +707,16 @@ public class RedisUtils {
      * @return
      */
     public boolean lSet(String key, Object value, long time) {
-        try {
-            redisTemplate.opsForList().rightPush(key, value);
-            if (time > 0) {
-                expire(key, time);
+        return metrics.time(CLIENT, "lSet", key, () -> {
+            try {
+                scriptEngine.eval(LuaScript.RPUSH_EXPIRE, ReturnType.INTEGER, key, valueArgs(time, value));
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lSet", key, e);
+                log.error("Failed to add list element with TTL, key: {}, value: {}", key, value, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to add list element with TTL, key: {}, value: {}", key, value, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -485,13 +726,16 @@ public class RedisUtils {
      * @return
      */
     public boolean lSet(String key, List<Object> value) {
-        try {
-            redisTemplate.opsForList().rightPushAll(key, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to add list elements, key: {}, values: {}", key, value, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "lSet", key, () -> {
+            try {
+                elementRedisTemplate.opsForList().rightPushAll(key, value);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lSet", key, e);
+                log.error("Failed to add list elements, key: {}, values: {}", key, value, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -502,16 +746,16 @@ public class RedisUtils {
      * @return
      */
     public boolean lSet(String key, List<Object> value, long time) {
-        try {
-            redisTemplate.opsForList().rightPushAll(key, value);
-            if (time > 0) {
-                expire(key, time);
+        return metrics.time(CLIENT, "lSet", key, () -> {
+            try {
+                scriptEngine.eval(LuaScript.RPUSH_EXPIRE, ReturnType.INTEGER, key, valueArgs(time, value.toArray()));
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lSet", key, e);
+                log.error("Failed to add list elements with TTL, key: {}, values: {}", key, value, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to add list elements with TTL, key: {}, values: {}", key, value, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -522,13 +766,16 @@ public class RedisUtils {
      * @return
      */
     public boolean lUpdateIndex(String key, long index, Object value) {
-        try {
-            redisTemplate.opsForList().set(key, index, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to update list element, key: {}, index: {}, value: {}", key, index, value, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "lUpdateIndex", key, () -> {
+            try {
+                elementRedisTemplate.opsForList().set(key, index, value);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lUpdateIndex", key, e);
+                log.error("Failed to update list element, key: {}, index: {}, value: {}", key, index, value, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -539,12 +786,246 @@ public class RedisUtils {
      * @return 移除的个数
      */
     public long lRemove(String key, long count, Object value) {
+        return metrics.time(CLIENT, "lRemove", key, () -> {
+            try {
+                Long remove = elementRedisTemplate.opsForList().remove(key, count, value);
+                return remove;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lRemove", key, e);
+                log.error("Failed to remove list elements, key: {}, count: {}, value: {}", key, count, value, e);
+                return 0L;
+            }
+        });
+    }
+
+    // 脚本参数：ARGV[1] 为过期时间，其后为序列化后的 Set/List 元素
+    private byte[][] valueArgs(long time, Object... values) {
+        byte[][] args = new byte[values.length + 1][];
+        args[0] = scriptEngine.ttlArg(TimeUnit.SECONDS.toMillis(time));
+        for (int i = 0; i < values.length; i++) {
+            args[i + 1] = scriptEngine.serialize(elementRedisTemplate.getValueSerializer(), values[i]);
+        }
+        return args;
+    }
+
+    // ===============================scan=================================
+
+    /**
+     * 以游标(HSCAN)方式流式遍历hash，内存占用与hash大小无关
+     * 返回的Stream需要关闭以释放游标占用的连接
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的键值流
+     */
+    public Stream<Map.Entry<Object, Object>> hScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
         try {
-            Long remove = redisTemplate.opsForList().remove(key, count, value);
-            return remove;
+            Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.<Object, Object>opsForHash().scan(key, scanOptions(size));
+            return scanStreams.stream(cursor, size, cursor);
         } catch (Exception e) {
-            log.error("Failed to remove list elements, key: {}, count: {}, value: {}", key, count, value, e);
-            return 0;
+            log.error("Failed to scan hash, key: {}", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 以游标(SSCAN)方式流式遍历set
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的元素流
+     */
+    public Stream<Object> sScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        try {
+            Cursor<Object> cursor = elementRedisTemplate.opsForSet().scan(key, scanOptions(size));
+            return scanStreams.stream(cursor, size, cursor);
+        } catch (Exception e) {
+            log.error("Failed to scan set, key: {}", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 以游标(ZSCAN)方式流式遍历有序集合
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的元素(含分数)流
+     */
+    public Stream<ZSetOperations.TypedTuple<Object>> zScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        try {
+            Cursor<ZSetOperations.TypedTuple<Object>> cursor = elementRedisTemplate.opsForZSet().scan(key, scanOptions(size));
+            return scanStreams.stream(cursor, size, cursor);
+        } catch (Exception e) {
+            log.error("Failed to scan sorted set, key: {}", key, e);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * 以分页 LRANGE 方式流式遍历list
+     * @param key 键
+     * @param batchSize 每页个数 小于等于0时使用默认值
+     * @return 惰性的元素流
+     */
+    public Stream<Object> lScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        RangePageIterator<Object> pages = new RangePageIterator<>((start, end) -> elementRedisTemplate.opsForList().range(key, start, end), size);
+        return scanStreams.stream(pages, size, null);
+    }
+
+    // ===============================counter=================================
+
+    /**
+     * 缓冲递增，本地累计后定时批量写入(见 learn.cache.counter)，适合高频的浏览量/用量计数
+     * 启用分片时 key 会拆分为多个Redis键，只能通过 getCounter 读取
+     * @param key 键
+     * @param delta 增量，可以为负
+     */
+    public void incrBuffered(String key, long delta) {
+        counters.add(key, delta);
+    }
+
+    /**
+     * Hash项缓冲递增
+     * @param key 键
+     * @param item 项
+     * @param delta 增量，可以为负
+     */
+    public void hincrBuffered(String key, String item, long delta) {
+        counters.add(key, item, delta);
+    }
+
+    /**
+     * 读取缓冲计数器(汇总所有分片)，不包含本节点尚未刷新的增量
+     * @param key 键
+     * @return 计数，失败时返回null
+     */
+    public Long getCounter(String key) {
+        return counters.get(key);
+    }
+
+    /**
+     * 读取Hash项缓冲计数器(汇总所有分片)
+     * @param key 键
+     * @param item 项
+     * @return 计数，失败时返回null
+     */
+    public Long hgetCounter(String key, String item) {
+        return counters.get(key, item);
+    }
+
+    // 槽位按序列化后的key字节计算，与实际发送的key一致
+    private int slot(String key) {
+        return ClusterSlots.slot(scriptEngine.serialize(redisTemplate.getKeySerializer(), key));
+    }
+
+    private static long count(Long count) {
+        return count == null ? 0 : count;
+    }
+
+    private ScanOptions scanOptions(int batchSize) {
+        return ScanOptions.scanOptions().count(batchSize).build();
+    }
+
+    // ===============================write-behind=================================
+
+    /**
+     * 延迟写入，同一个key在刷新前的多次写入只保留最后一次(见 learn.cache.write-behind)，适合高频覆盖写
+     * 队列满且等待超时时改为直接写入；写入到达Redis前读取拿到的是旧值
+     * @param key 键
+     * @param value 值
+     * @param time 时间(秒) 小于等于0时不过期
+     * @return true成功 false失败
+     */
+    public boolean setBehind(String key, Object value, long time) {
+        return writeBehind.offer(key, value, time > 0 ? TimeUnit.SECONDS.toMillis(time) : 0) || set(key, value, time);
+    }
+
+    /**
+     * Hash项延迟写入，同一个Hash项在刷新前的多次写入只保留最后一次
+     * @param key 键
+     * @param item 项
+     * @param value 值
+     * @param time 时间(秒) 小于等于0时不设置 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @return true成功 false失败
+     */
+    public boolean hsetBehind(String key, String item, Object value, long time) {
+        return writeBehind.offer(key, item, value, time > 0 ? TimeUnit.SECONDS.toMillis(time) : 0) || hset(key, item, value, time);
+    }
+
+    /**
+     * 立即刷新延迟写入队列
+     * @return 刷新失败(留在队列中下次重试)的个数
+     */
+    public int flushBehind() {
+        return writeBehind.flush();
+    }
+
+    // ===============================batch=================================
+
+    /**
+     * 创建批量操作构建器，execute 时通过管道一次性发送
+     * 批量操作直接写入Redis，不经过延迟写入队列：队列中同一个key尚未刷新的写入不会被丢弃，刷新时仍会覆盖批量写入的值，
+     * 需要时先调用 flushBehind，或改用 mset/expire(Collection, long)
+     * @return 批量操作构建器
+     */
+    public CacheBatch batch() {
+        return new RedisTemplateBatch(redisTemplate, nearCache);
+    }
+
+    /**
+     * 批量获取，集群模式下按节点拆分后并行执行
+     * @param keys 键
+     * @return 每个key的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> mget(Collection<String> keys) {
+        return metrics.time(CLIENT, "mget", keys, () -> fanout.mapByNode(keys, this::slot, nodeKeys -> {
+            CacheBatch batch = batch();
+            nodeKeys.forEach(batch::get);
+            return batch.execute();
+        }));
+    }
+
+    /**
+     * 批量放入并设置时间，集群模式下按节点拆分后并行执行
+     * @param values 键值
+     * @param time 时间(秒) time小于等于0 将设置无限期
+     * @return 每个key的结果，顺序与入参迭代顺序一致
+     */
+    public List<KeyResult<Object>> mset(Map<String, Object> values, long time) {
+        return metrics.time(CLIENT, "mset", values, () -> fanout.mapByNode(values.keySet(), this::slot, nodeKeys -> {
+            nodeKeys.forEach(writeBehind::discard);
+            CacheBatch batch = batch();
+            nodeKeys.forEach(key -> batch.set(key, values.get(key), time, TimeUnit.SECONDS));
+            return batch.execute();
+        }));
+    }
+
+    /**
+     * 批量获取hash中的多个项
+     * @param key 键
+     * @param items 项
+     * @return 每个项的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> hmget(String key, Collection<String> items) {
+        CacheBatch batch = batch();
+        items.forEach(item -> batch.hget(key, item));
+        return metrics.time(CLIENT, "hmget", key, batch::execute);
+    }
+
+    /**
+     * 批量指定缓存失效时间
+     * @param keys 键
+     * @param time 时间(秒)
+     * @return 每个key的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> expire(Collection<String> keys, long time) {
+        if (time > 0) {
+            keys.forEach(key -> writeBehind.expire(key, TimeUnit.SECONDS.toMillis(time)));
         }
+        CacheBatch batch = batch();
+        keys.forEach(key -> batch.expire(key, time, TimeUnit.SECONDS));
+        return metrics.time(CLIENT, "expireAll", keys, batch::execute);
     }
 }
\ No newline at end of file
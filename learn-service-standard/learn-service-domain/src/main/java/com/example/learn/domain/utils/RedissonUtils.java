@@ -1,12 +1,42 @@
 package com.example.learn.domain.utils;
 
+import com.example.learn.domain.batch.CacheBatch;
+import com.example.learn.domain.bloom.BloomGuard;
+import com.example.learn.domain.batch.KeyResult;
+import com.example.learn.domain.batch.RedissonBatch;
+import com.example.learn.domain.cache.CacheRefresher;
+import com.example.learn.domain.cache.CachedValue;
+import com.example.learn.domain.cache.LocalCachedMaps;
+import com.example.learn.domain.cache.NearCache;
+import com.example.learn.domain.cache.ReadMode;
+import com.example.learn.domain.cache.TtlJitter;
+import com.example.learn.domain.chunk.ChunkedValues;
+import com.example.learn.domain.codec.CompactCodec;
+import com.example.learn.domain.cluster.ClusterFanout;
+import com.example.learn.domain.cluster.ClusterSlots;
+import com.example.learn.domain.hotkey.HotKeys;
+import com.example.learn.domain.config.LoadingProperties;
+import com.example.learn.domain.lock.LocalLocks;
+import com.example.learn.domain.metrics.CacheMetrics;
+import com.example.learn.domain.ratelimit.RateLimiters;
+import com.example.learn.domain.script.LuaScript;
+import com.example.learn.domain.script.ScriptEngine;
+import com.example.learn.domain.stream.RangePageIterator;
+import com.example.learn.domain.stream.ScanStreams;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.*;
+import org.redisson.client.codec.Codec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Redisson 操作工具类
@@ -19,6 +49,54 @@ public class RedissonUtils {
     @Autowired
     private RedissonClient redissonClient;
 
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private ScriptEngine scriptEngine;
+
+    @Autowired
+    private ScanStreams scanStreams;
+
+    @Autowired
+    private LocalCachedMaps localCachedMaps;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private LocalLocks localLocks;
+
+    @Autowired
+    private RateLimiters rateLimiters;
+
+    @Autowired
+    private BloomGuard bloomGuard;
+
+    @Autowired
+    private CacheRefresher refresher;
+
+    @Autowired
+    private LoadingProperties loading;
+
+    @Autowired
+    private ClusterFanout fanout;
+
+    @Autowired
+    private HotKeys hotKeys;
+
+    @Autowired
+    private ChunkedValues chunkedValues;
+
+    // 指标中的 client 标签
+    private static final String CLIENT = "redisson";
+
+    // 近端缓存命名空间，与 RedisUtils 的序列化方式不同，L1 中分开存放
+    private static final String NEAR_CACHE_NAMESPACE = "redisson";
+
+    // getOrLoad 回源互斥锁的key后缀
+    private static final String LOADING_LOCK_SUFFIX = ":loading";
+
     // ============================= 通用操作 ============================
 
     /**
@@ -29,15 +107,18 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean expire(String key, long time, TimeUnit timeUnit) {
-        try {
-            if (time > 0) {
-                redissonClient.getBucket(key).expire(time, timeUnit);
+        return metrics.time(CLIENT, "expire", key, () -> {
+            try {
+                if (time > 0) {
+                    redissonClient.getBucket(key).expire(Duration.ofMillis(timeUnit.toMillis(time)));
+                }
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "expire", key, e);
+                log.error("Failed to set key expiration, key: {}", key, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set key expiration, key: {}", key, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -46,7 +127,7 @@ public class RedissonUtils {
      * @return 剩余时间(毫秒)
      */
     public long getExpire(String key) {
-        return redissonClient.getBucket(key).remainTimeToLive();
+        return metrics.time(CLIENT, "getExpire", key, () -> redissonClient.getBucket(key).remainTimeToLive());
     }
 
     /**
@@ -55,30 +136,107 @@ public class RedissonUtils {
      * @return 是否存在
      */
     public boolean hasKey(String key) {
-        try {
-            return redissonClient.getBucket(key).isExists();
-        } catch (Exception e) {
-            log.error("Failed to check key existence, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hasKey", key, () -> {
+            try {
+                return redissonClient.getBucket(key).isExists();
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hasKey", key, e);
+                log.error("Failed to check key existence, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
-     * 删除缓存
+     * 删除缓存，集群模式下按槽位拆分后各节点并行删除
      * @param keys 可以传一个或多个key
      */
     public void del(String... keys) {
-        if (keys != null && keys.length > 0) {
+        metrics.time(CLIENT, "del", keys, () -> {
+            if (keys != null && keys.length > 0) {
+                try {
+                    fanout.sumBySlot(Arrays.asList(keys), ClusterSlots::slot, slotKeys -> chunkedValues.deleteKeys(slotKeys, false));
+                    nearCache.invalidate(keys);
+                    for (String key : keys) {
+                        localCachedMaps.clearIfManaged(key);
+                    }
+                } catch (Exception e) {
+                    metrics.error(CLIENT, "del", keys, e);
+                    log.error("Failed to delete keys: {}", Arrays.toString(keys), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 非阻塞删除(UNLINK)，大key的内存在服务端后台线程回收，集群模式下按槽位拆分后各节点并行执行
+     * @param keys 可以传一个或多个key
+     * @return 删除的个数，失败时返回0
+     */
+    public long unlink(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return 0;
+        }
+        return metrics.time(CLIENT, "unlink", keys, () -> {
             try {
-                if (keys.length == 1) {
-                    redissonClient.getBucket(keys[0]).delete();
-                } else {
-                    redissonClient.getKeys().delete(keys);
+                long count = fanout.sumBySlot(Arrays.asList(keys), ClusterSlots::slot, slotKeys -> chunkedValues.deleteKeys(slotKeys, true));
+                nearCache.invalidate(keys);
+                for (String key : keys) {
+                    localCachedMaps.clearIfManaged(key);
                 }
+                return count;
             } catch (Exception e) {
-                log.error("Failed to delete keys: {}", Arrays.toString(keys), e);
+                metrics.error(CLIENT, "unlink", keys, e);
+                log.error("Failed to unlink keys: {}", Arrays.toString(keys), e);
+                return 0L;
             }
+        });
+    }
+
+    /**
+     * 统计存在的key个数，集群模式下按槽位拆分后各节点并行执行
+     * @param keys 键
+     * @return 存在的个数，失败时返回0
+     */
+    public long exists(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
         }
+        return metrics.time(CLIENT, "exists", keys, () -> {
+            try {
+                return fanout.sumBySlot(keys, ClusterSlots::slot,
+                        slotKeys -> redissonClient.getKeys().countExists(slotKeys.toArray(new String[0])));
+            } catch (Exception e) {
+                metrics.error(CLIENT, "exists", keys, e);
+                log.error("Failed to count existing keys: {}", keys, e);
+                return 0L;
+            }
+        });
+    }
+
+    /**
+     * 值与期望值相等时才删除(原子操作)
+     * @param key 键
+     * @param expected 期望值
+     * @return 是否已删除
+     */
+    public boolean compareAndDelete(String key, Object expected) {
+        return metrics.time(CLIENT, "compareAndDelete", key, () -> {
+            try {
+                Codec codec = redissonClient.getConfig().getCodec();
+                Long count = scriptEngine.eval(LuaScript.COMPARE_AND_DELETE, RScript.ReturnType.INTEGER, key,
+                        scriptEngine.encode(codec.getValueEncoder(), expected));
+                if (count != null && count > 0) {
+                    nearCache.invalidate(key);
+                    return true;
+                }
+                return false;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "compareAndDelete", key, e);
+                log.error("Failed to compare and delete, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     // ============================ String 操作 ===========================
@@ -89,7 +247,27 @@ public class RedissonUtils {
      * @return 值
      */
     public Object get(String key) {
-        return key == null ? null : redissonClient.getBucket(key).get();
+        return key == null ? null : nearCache.get(NEAR_CACHE_NAMESPACE, key,
+                () -> hotKeys.get(NEAR_CACHE_NAMESPACE, key, null, ClusterSlots::slot,
+                        () -> metrics.time(CLIENT, "get", key, () -> redissonClient.getBucket(key, chunkedValues.readCodec()).get())));
+    }
+
+    /**
+     * 获取缓存值并刷新过期时间(一次往返)
+     * @param key 键
+     * @param time 时间 小于等于0时只获取不刷新
+     * @param timeUnit 时间单位
+     * @return 值
+     */
+    public Object getAndExpire(String key, long time, TimeUnit timeUnit) {
+        if (key == null) {
+            return null;
+        }
+        return metrics.time(CLIENT, "getAndExpire", key, () -> {
+            byte[] raw = scriptEngine.eval(LuaScript.GET_AND_EXPIRE, RScript.ReturnType.VALUE, key,
+                    scriptEngine.ttlArg(timeUnit.toMillis(time)));
+            return scriptEngine.decode(chunkedValues.readCodec(), raw);
+        });
     }
 
     /**
@@ -99,13 +277,17 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean set(String key, Object value) {
-        try {
-            redissonClient.getBucket(key).set(value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set value, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "set", key, () -> {
+            try {
+                chunkedValues.setPlain(key, value, 0);
+                nearCache.invalidate(key);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "set", key, e);
+                log.error("Failed to set value, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -117,19 +299,104 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean set(String key, Object value, long time, TimeUnit timeUnit) {
+        return metrics.time(CLIENT, "set", key, () -> {
+            try {
+                if (time > 0) {
+                    chunkedValues.setPlain(key, value, timeUnit.toMillis(time));
+                    nearCache.invalidate(key);
+                } else {
+                    set(key, value);
+                }
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "set", key, e);
+                log.error("Failed to set value with TTL, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    // ============================ 回源加载 ============================
+
+    /**
+     * 读取缓存，未命中时通过 loader 回源并写入，防止热点key过期时大量请求同时回源
+     * 1. 接近过期时按 XFetch 概率提前刷新，回源越慢越早刷新
+     * 2. 刷新由短期互斥锁保证只有一个请求(跨节点)回源；逻辑过期后 staleTtl 内其他请求继续返回旧值，刷新在后台执行
+     * 3. 写入时过期时间随机浮动 ttlJitter，避免同批写入的key同时过期
+     * 冷缓存(没有旧值)时未抢到锁的请求等待回源结果，最长 lockWait，超时后自行回源且不写入
+     * loader 返回null时不缓存；key 中的值须由本方法写入，set 写入的普通值会原样返回且不再刷新
+     * @param key 键
+     * @param ttl 过期时间
+     * @param unit 时间单位
+     * @param loader 回源逻辑
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String key, long ttl, TimeUnit unit, Supplier<T> loader) {
+        Object cached = get(key);
+        if (cached != null && !(cached instanceof CachedValue)) {
+            return (T) cached;
+        }
+        CachedValue entry = (CachedValue) cached;
+        if (entry != null) {
+            if (entry.shouldRefresh(System.currentTimeMillis(), loading.getBeta())) {
+                String token = tryLoadingLock(key);
+                if (token != null && !refresher.submit(key, () -> load(key, ttl, unit, loader, token))) {
+                    compareAndDelete(key + LOADING_LOCK_SUFFIX, token);
+                }
+            }
+            return (T) entry.getValue();
+        }
+        String token = tryLoadingLock(key);
+        if (token != null) {
+            return load(key, ttl, unit, loader, token);
+        }
+        long deadline = System.currentTimeMillis() + loading.getLockWait();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(loading.getPollInterval());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Object value = get(key);
+            if (value != null) {
+                return (T) (value instanceof CachedValue ? ((CachedValue) value).getValue() : value);
+            }
+        }
+        return loader.get();
+    }
+
+    private <T> T load(String key, long ttl, TimeUnit unit, Supplier<T> loader, String token) {
         try {
-            if (time > 0) {
-                redissonClient.getBucket(key).set(value, time, timeUnit);
-            } else {
-                set(key, value);
+            long start = System.currentTimeMillis();
+            T value = loader.get();
+            long end = System.currentTimeMillis();
+            if (value != null) {
+                long ttlMillis = TtlJitter.apply(unit.toMillis(ttl), loading.getTtlJitter());
+                set(key, new CachedValue(value, end - start, end + ttlMillis), ttlMillis + loading.getStaleTtl(), TimeUnit.MILLISECONDS);
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set value with TTL, key: {}", key, e);
-            return false;
+            return value;
+        } finally {
+            compareAndDelete(key + LOADING_LOCK_SUFFIX, token);
         }
     }
 
+    // 抢到回源锁时返回锁的持有者标识，否则返回null
+    private String tryLoadingLock(String key) {
+        String lockKey = key + LOADING_LOCK_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        return metrics.time(CLIENT, "loadingLock", lockKey, () -> {
+            try {
+                return redissonClient.getBucket(lockKey).setIfAbsent(token, Duration.ofMillis(loading.getLockTtl())) ? token : null;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "loadingLock", lockKey, e);
+                log.error("Failed to acquire loading lock, key: {}", key, e);
+                return null;
+            }
+        });
+    }
+
     // ================================ Map 操作 ================================
 
     /**
@@ -139,7 +406,12 @@ public class RedissonUtils {
      * @return 值
      */
     public Object hget(String key, String field) {
-        return redissonClient.getMap(key).get(field);
+        if (localCachedMaps.isManaged(key)) {
+            return localCachedMaps.get(key).get(field);
+        }
+        return nearCache.hget(NEAR_CACHE_NAMESPACE, key, field,
+                () -> hotKeys.get(NEAR_CACHE_NAMESPACE, key, field, ClusterSlots::slot,
+                        () -> metrics.time(CLIENT, "hget", key, () -> redissonClient.getMap(key).get(field))));
     }
 
     /**
@@ -151,6 +423,30 @@ public class RedissonUtils {
         return redissonClient.getMap(key);
     }
 
+    /**
+     * 按指定方式获取Hash中的所有键值
+     * @param key 键
+     * @param mode LIVE 返回代理对象；SNAPSHOT 一次 HGETALL 读入普通Map；
+     *             LOCAL_CACHED 返回本地缓存视图，仅对 learn.cache.local-map.keyPrefixes 匹配的key生效，其余key按 LIVE 处理
+     * @return 对应的多个键值
+     */
+    public Map<Object, Object> hmget(String key, ReadMode mode) {
+        switch (mode) {
+            case SNAPSHOT:
+                try {
+                    return metrics.time(CLIENT, "hgetall", key, () -> redissonClient.getMap(key).readAllMap());
+                } catch (Exception e) {
+                    log.error("Failed to read hash snapshot, key: {}", key, e);
+                    return null;
+                }
+            case LOCAL_CACHED:
+                // 未配置前缀的key在其他节点上通过普通 RMap 写入，不会发出失效通知，不能使用本地缓存
+                return localCachedMaps.isManaged(key) ? localCachedMaps.get(key) : hmget(key);
+            default:
+                return hmget(key);
+        }
+    }
+
     /**
      * 设置Hash多个键值
      * @param key 键
@@ -158,13 +454,17 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean hmset(String key, Map<String, Object> map) {
-        try {
-            redissonClient.getMap(key).putAll(map);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash values, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hmset", key, () -> {
+            try {
+                localCachedMaps.forWrite(key).putAll(map);
+                nearCache.invalidateFields(key, map.keySet().toArray());
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hmset", key, e);
+                log.error("Failed to set hash values, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -176,16 +476,18 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean hmset(String key, Map<String, Object> map, long time, TimeUnit timeUnit) {
-        try {
-            redissonClient.getMap(key).putAll(map);
-            if (time > 0) {
-                expire(key, time, timeUnit);
+        return metrics.time(CLIENT, "hmset", key, () -> {
+            try {
+                scriptEngine.eval(LuaScript.HSET_EXPIRE, RScript.ReturnType.INTEGER, key, hashArgs(map, time, timeUnit));
+                nearCache.invalidateFields(key, map.keySet().toArray());
+                localCachedMaps.clearIfManaged(key);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hmset", key, e);
+                log.error("Failed to set hash values with TTL, key: {}", key, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash values with TTL, key: {}", key, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -196,13 +498,17 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean hset(String key, String field, Object value) {
-        try {
-            redissonClient.getMap(key).put(field, value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash field, key: {}, field: {}", key, field, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "hset", key, () -> {
+            try {
+                localCachedMaps.forWrite(key).put(field, value);
+                nearCache.invalidateFields(key, field);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hset", key, e);
+                log.error("Failed to set hash field, key: {}, field: {}", key, field, e);
+                return false;
+            }
+        });
     }
 
     /**
@@ -215,16 +521,19 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean hset(String key, String field, Object value, long time, TimeUnit timeUnit) {
-        try {
-            redissonClient.getMap(key).put(field, value);
-            if (time > 0) {
-                expire(key, time, timeUnit);
+        return metrics.time(CLIENT, "hset", key, () -> {
+            try {
+                scriptEngine.eval(LuaScript.HSET_EXPIRE, RScript.ReturnType.INTEGER, key,
+                        hashArgs(Collections.singletonMap(field, value), time, timeUnit));
+                nearCache.invalidateFields(key, field);
+                localCachedMaps.clearIfManaged(key);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hset", key, e);
+                log.error("Failed to set hash field with TTL, key: {}, field: {}", key, field, e);
+                return false;
             }
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to set hash field with TTL, key: {}, field: {}", key, field, e);
-            return false;
-        }
+        });
     }
 
     /**
@@ -233,14 +542,28 @@ public class RedissonUtils {
      * @param fields 项 可以是多个
      */
     public void hdel(String key, Object... fields) {
-        try {
-            RMap<Object, Object> map = redissonClient.getMap(key);
-            for (Object field : fields) {
-                map.remove(field);
+        metrics.time(CLIENT, "hdel", key, () -> {
+            try {
+                // HDEL 本身支持多个项，一次往返完成
+                localCachedMaps.forWrite(key).fastRemove(fields);
+                nearCache.invalidateFields(key, fields);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "hdel", key, e);
+                log.error("Failed to delete hash fields, key: {}, fields: {}", key, Arrays.toString(fields), e);
             }
-        } catch (Exception e) {
-            log.error("Failed to delete hash fields, key: {}, fields: {}", key, Arrays.toString(fields), e);
-        }
+        });
+    }
+
+    // 脚本参数：ARGV[1] 为过期时间，其后为编码后的项和值
+    private byte[][] hashArgs(Map<String, Object> map, long time, TimeUnit timeUnit) {
+        Codec codec = redissonClient.getConfig().getCodec();
+        List<byte[]> args = new ArrayList<>(map.size() * 2 + 1);
+        args.add(scriptEngine.ttlArg(timeUnit.toMillis(time)));
+        map.forEach((field, value) -> {
+            args.add(scriptEngine.encode(codec.getMapKeyEncoder(), field));
+            args.add(scriptEngine.encode(codec.getMapValueEncoder(), value));
+        });
+        return args.toArray(new byte[0][]);
     }
 
     // ============================ Set 操作 =============================
@@ -251,7 +574,29 @@ public class RedissonUtils {
      * @return Set中的所有值
      */
     public Set<Object> sGet(String key) {
-        return redissonClient.getSet(key);
+        return redissonClient.getSet(key, elementCodec());
+    }
+
+    /**
+     * 按指定方式获取Set中的所有值
+     * @param key 键
+     * @param mode LIVE 返回代理对象；SNAPSHOT 一次 SMEMBERS 读入普通Set；不支持 LOCAL_CACHED
+     * @return Set中的所有值
+     */
+    public Set<Object> sGet(String key, ReadMode mode) {
+        switch (mode) {
+            case SNAPSHOT:
+                try {
+                    return metrics.time(CLIENT, "sGet", key, () -> redissonClient.getSet(key, elementCodec()).readAll());
+                } catch (Exception e) {
+                    log.error("Failed to read set snapshot, key: {}", key, e);
+                    return null;
+                }
+            case LOCAL_CACHED:
+                throw new IllegalArgumentException("LOCAL_CACHED mode is only supported for hash");
+            default:
+                return sGet(key);
+        }
     }
 
     /**
@@ -261,7 +606,7 @@ public class RedissonUtils {
      * @return 是否包含
      */
     public boolean sHasKey(String key, Object value) {
-        return redissonClient.getSet(key).contains(value);
+        return metrics.time(CLIENT, "sHasKey", key, () -> redissonClient.getSet(key, elementCodec()).contains(value));
     }
 
     /**
@@ -271,15 +616,18 @@ public class RedissonUtils {
      * @return 是否至少有一个元素被成功添加
      */
     public boolean sSet(String key, Object... values) {
-        try {
-            if (values == null || values.length == 0) {
+        return metrics.time(CLIENT, "sSet", key, () -> {
+            try {
+                if (values == null || values.length == 0) {
+                    return false;
+                }
+                return redissonClient.getSet(key, elementCodec()).addAll(Arrays.asList(values));
+            } catch (Exception e) {
+                metrics.error(CLIENT, "sSet", key, e);
+                log.error("Failed to add set elements, key: {}, values: {}", key, Arrays.toString(values), e);
                 return false;
             }
-            return redissonClient.getSet(key).addAll(Arrays.asList(values));
-        } catch (Exception e) {
-            log.error("Failed to add set elements, key: {}, values: {}", key, Arrays.toString(values), e);
-            return false;
-        }
+        });
     }
 
     // =============================== List 操作 ==============================
@@ -292,12 +640,15 @@ public class RedissonUtils {
      * @return List中指定范围的值
      */
     public List<Object> lGet(String key, long start, long end) {
-        try {
-            return redissonClient.getList(key).subList((int) start, (int) end + 1);
-        } catch (Exception e) {
-            log.error("Failed to get list range, key: {}, start: {}, end: {}", key, start, end, e);
-            return null;
-        }
+        return metrics.time(CLIENT, "lGet", key, () -> {
+            try {
+                return redissonClient.getList(key, elementCodec()).subList((int) start, (int) end + 1);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lGet", key, e);
+                log.error("Failed to get list range, key: {}, start: {}, end: {}", key, start, end, e);
+                return null;
+            }
+        });
     }
 
     /**
@@ -307,39 +658,726 @@ public class RedissonUtils {
      * @return 设置是否成功
      */
     public boolean lSet(String key, List<Object> value) {
-        try {
-            redissonClient.getList(key).addAll(value);
-            return true;
-        } catch (Exception e) {
-            log.error("Failed to add list elements, key: {}", key, e);
-            return false;
-        }
+        return metrics.time(CLIENT, "lSet", key, () -> {
+            try {
+                redissonClient.getList(key, elementCodec()).addAll(value);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "lSet", key, e);
+                log.error("Failed to add list elements, key: {}", key, e);
+                return false;
+            }
+        });
     }
 
-    // ========================== 分布式锁操作 ==========================
+    // ============================ 游标遍历 ============================
 
     /**
-     * 获取分布式锁
-     * @param lockKey 锁键
-     * @param waitTime 等待时间
-     * @param leaseTime 持有时间
-     * @param unit 时间单位
-     * @return 是否获取成功
-     * @throws InterruptedException 中断异常
+     * 以游标(HSCAN)方式流式遍历Hash，内存占用与Hash大小无关
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的键值流
      */
-    public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
-        return redissonClient.getLock(lockKey).tryLock(waitTime, leaseTime, unit);
+    public Stream<Map.Entry<Object, Object>> hScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        RMap<Object, Object> map = redissonClient.getMap(key);
+        return scanStreams.stream(map.entrySet(size).iterator(), size, null);
     }
 
     /**
-     * 释放分布式锁
-     * @param lockKey 锁键
+     * 以游标(SSCAN)方式流式遍历Set
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的元素流
      */
-    public void unlock(String lockKey) {
-        try {
-            redissonClient.getLock(lockKey).unlock();
-        } catch (Exception e) {
-            log.error("Failed to unlock, lockKey: {}", lockKey, e);
-        }
+    public Stream<Object> sScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        RSet<Object> set = redissonClient.getSet(key, elementCodec());
+        return scanStreams.stream(set.iterator(size), size, null);
+    }
+
+    /**
+     * 以游标(ZSCAN)方式流式遍历有序集合
+     * @param key 键
+     * @param batchSize 每批个数 小于等于0时使用默认值
+     * @return 惰性的元素流
+     */
+    public Stream<Object> zScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        RScoredSortedSet<Object> zset = redissonClient.getScoredSortedSet(key, elementCodec());
+        return scanStreams.stream(zset.iterator(size), size, null);
+    }
+
+    /**
+     * 以分页 LRANGE 方式流式遍历List
+     * @param key 键
+     * @param batchSize 每页个数 小于等于0时使用默认值
+     * @return 惰性的元素流
+     */
+    public Stream<Object> lScan(String key, int batchSize) {
+        int size = scanStreams.batchSize(batchSize);
+        RList<Object> list = redissonClient.getList(key, elementCodec());
+        RangePageIterator<Object> pages = new RangePageIterator<>((start, end) -> list.range((int) start, (int) end), size);
+        return scanStreams.stream(pages, size, null);
+    }
+
+    // ============================ 批量操作 ============================
+
+    /**
+     * 创建批量操作构建器，execute 时通过 RBatch 一次性发送
+     * 读取到分块清单时该项失败；set/del 直接发送命令，不会删除被覆盖的分块清单的分块，分块键请使用 delChunked
+     * @return 批量操作构建器
+     */
+    public CacheBatch batch() {
+        return new RedissonBatch(redissonClient, nearCache, chunkedValues.readCodec());
+    }
+
+    /**
+     * 批量获取缓存值，集群模式下按节点拆分后并行执行
+     * @param keys 键
+     * @return 每个key的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> mget(Collection<String> keys) {
+        return metrics.time(CLIENT, "mget", keys, () -> fanout.mapByNode(keys, ClusterSlots::slot, nodeKeys -> {
+            CacheBatch batch = batch();
+            nodeKeys.forEach(batch::get);
+            return batch.execute();
+        }));
+    }
+
+    /**
+     * 批量设置缓存值并指定过期时间，集群模式下按节点拆分后并行执行
+     * @param values 键值
+     * @param time 时间 小于等于0时不过期
+     * @param timeUnit 时间单位
+     * @return 每个key的结果，顺序与入参迭代顺序一致
+     */
+    public List<KeyResult<Object>> mset(Map<String, Object> values, long time, TimeUnit timeUnit) {
+        return metrics.time(CLIENT, "mset", values, () -> fanout.mapByNode(values.keySet(), ClusterSlots::slot, nodeKeys -> {
+            CacheBatch batch = batch();
+            nodeKeys.forEach(key -> batch.set(key, values.get(key), time, timeUnit));
+            return batch.execute();
+        }));
+    }
+
+    /**
+     * 批量获取Hash中的多个项
+     * @param key 键
+     * @param fields 项
+     * @return 每个项的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> hmget(String key, Collection<String> fields) {
+        CacheBatch batch = batch();
+        fields.forEach(field -> batch.hget(key, field));
+        return metrics.time(CLIENT, "hmget", key, batch::execute);
+    }
+
+    /**
+     * 批量设置缓存失效时间
+     * @param keys 键
+     * @param time 时间
+     * @param timeUnit 时间单位
+     * @return 每个key的结果，顺序与入参一致
+     */
+    public List<KeyResult<Object>> expire(Collection<String> keys, long time, TimeUnit timeUnit) {
+        CacheBatch batch = batch();
+        keys.forEach(key -> batch.expire(key, time, timeUnit));
+        return metrics.time(CLIENT, "expireAll", keys, batch::execute);
+    }
+
+    // ============================ 大值分块 ============================
+
+    /**
+     * 写入大值，编码后超过 learn.cache.chunk.chunkSize 时拆分为多个分块，新旧版本原子切换
+     * 写入的key只能通过 getChunked 读取，用 get/getAsync/getAndExpire/mget 读取时抛出 IllegalStateException
+     * set/setAsync/del/delAsync/unlink 覆盖或删除这样的key时会一并删除分块
+     * @param key 键
+     * @param value 值
+     * @param time 时间 小于等于0时不过期
+     * @param timeUnit 时间单位
+     * @return true成功 false失败
+     */
+    public boolean setChunked(String key, Object value, long time, TimeUnit timeUnit) {
+        return metrics.time(CLIENT, "setChunked", key, () -> {
+            try {
+                chunkedValues.set(key, value, time > 0 ? timeUnit.toMillis(time) : 0);
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "setChunked", key, e);
+                log.error("Failed to set chunked value, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 读取 setChunked 写入的值，分块并行读取后拼接解码
+     * @param key 键
+     * @return 值，不存在或失败时返回null
+     */
+    public Object getChunked(String key) {
+        return metrics.time(CLIENT, "getChunked", key, () -> {
+            try {
+                return chunkedValues.get(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "getChunked", key, e);
+                log.error("Failed to get chunked value, key: {}", key, e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 原子地设置大值清单和全部分块的过期时间
+     * @param key 键
+     * @param time 时间 小于等于0时不设置
+     * @param timeUnit 时间单位
+     * @return 设置是否成功
+     */
+    public boolean expireChunked(String key, long time, TimeUnit timeUnit) {
+        if (time <= 0) {
+            return true;
+        }
+        return metrics.time(CLIENT, "expireChunked", key, () -> {
+            try {
+                return chunkedValues.expire(key, timeUnit.toMillis(time));
+            } catch (Exception e) {
+                metrics.error(CLIENT, "expireChunked", key, e);
+                log.error("Failed to expire chunked value, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 删除大值，分块在后台非阻塞删除
+     * @param key 键
+     * @return 键是否存在，失败时返回false
+     */
+    public boolean delChunked(String key) {
+        return metrics.time(CLIENT, "delChunked", key, () -> {
+            try {
+                return chunkedValues.delete(key);
+            } catch (Exception e) {
+                metrics.error(CLIENT, "delChunked", key, e);
+                log.error("Failed to delete chunked value, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    // =========================== 布隆过滤器 ===========================
+
+    /**
+     * 经布隆过滤器判断后获取缓存值，一定不存在的ID不访问Redis，直接返回null
+     * @param filter 过滤器名称(learn.cache.bloom.filters 中配置)
+     * @param id 加入过滤器的业务ID
+     * @param key 键
+     * @return 值
+     */
+    public Object getGuarded(String filter, Object id, String key) {
+        return bloomGuard.mightContain(filter, id) ? get(key) : null;
+    }
+
+    /**
+     * 经布隆过滤器判断后获取Hash项，一定不存在的ID不访问Redis，直接返回null
+     * @param filter 过滤器名称
+     * @param id 加入过滤器的业务ID
+     * @param key 键
+     * @param field 项
+     * @return 值
+     */
+    public Object hgetGuarded(String filter, Object id, String key, String field) {
+        return bloomGuard.mightContain(filter, id) ? hget(key, field) : null;
+    }
+
+    /**
+     * ID是否可能存在，只读本地副本，不访问网络
+     * @param filter 过滤器名称
+     * @param id 业务ID
+     * @return false 表示一定不存在
+     */
+    public boolean bloomMightContain(String filter, Object id) {
+        return bloomGuard.mightContain(filter, id);
+    }
+
+    /**
+     * 将新ID加入布隆过滤器，数据源新增记录后调用
+     * @param filter 过滤器名称
+     * @param id 业务ID
+     * @return 是否成功
+     */
+    public boolean bloomAdd(String filter, Object id) {
+        return bloomGuard.add(filter, id);
+    }
+
+    /**
+     * 用全量ID重建布隆过滤器(元素个数超出预期或有大量删除时)
+     * @param filter 过滤器名称
+     * @param ids 全部业务ID
+     * @return 是否成功
+     */
+    public boolean bloomRebuild(String filter, Iterable<?> ids) {
+        return bloomGuard.rebuild(filter, ids);
+    }
+
+    // ============================ 限流操作 ============================
+
+    /**
+     * 集群范围的限流(固定窗口)，许可按批从Redis租用后在本地发放，大部分调用不访问Redis
+     * 各节点未用完的许可在窗口结束时作废，全局放行数不超过上限；Redis 不可用时按 learn.cache.rate-limit.failOpen 处理
+     * @param key 限流键(如 rate:api:{apiKey})
+     * @param limit 窗口内的许可上限
+     * @param window 窗口长度
+     * @param unit 时间单位
+     * @return 是否放行
+     */
+    public boolean tryAcquire(String key, long limit, long window, TimeUnit unit) {
+        return rateLimiters.tryAcquire(key, limit, window, unit);
+    }
+
+    // ========================== 分布式锁操作 ==========================
+
+    /**
+     * 获取分布式锁
+     * 启用本地锁(localStriping)时先在该锁键的本地锁上排队，拿到本地锁后再用剩余的等待时间竞争分布式锁
+     * 本地锁只控制向 Redis 发起竞争的线程数，竞争结束(无论成功与否)立即释放，不会在临界区内一直持有
+     * 当前线程已持有该分布式锁时(重入)不经过本地锁，直接由 Redisson 计数
+     * 分布式锁由当前线程持有，须在同一线程上调用 unlock
+     * @param lockKey 锁键
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间
+     * @param unit 时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 中断异常
+     */
+    public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (!localLocks.isEnabled() || redissonClient.getLock(lockKey).isHeldByCurrentThread()) {
+            return tryDistributedLock(lockKey, waitTime, leaseTime, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        if (!localLocks.tryAcquire(lockKey, waitTime, unit)) {
+            return false;
+        }
+        try {
+            long remaining = Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            // leaseTime 小于等于0时保持原值，由 Redisson 看门狗续期
+            return tryDistributedLock(lockKey, remaining, leaseTime > 0 ? unit.toMillis(leaseTime) : leaseTime, TimeUnit.MILLISECONDS);
+        } finally {
+            localLocks.release(lockKey);
+        }
+    }
+
+    /**
+     * 获取分布式锁并返回防护令牌(fencing token)
+     * 令牌在每次加锁成功后递增，持有者把令牌随写请求带给被保护的资源，资源拒绝小于已见过令牌的请求，
+     * 这样锁因 GC 停顿或租约过期被他人获得后，旧持有者迟到的写入可以被识别出来
+     * 令牌计数器(lockKey + fenceSuffix)不设置过期时间，以保证单调递增
+     * @param lockKey 锁键
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间
+     * @param unit 时间单位
+     * @return 防护令牌，未获取到锁或获取令牌失败时返回null(此时不持有锁)
+     * @throws InterruptedException 中断异常
+     */
+    public Long tryLockWithFence(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (!tryLock(lockKey, waitTime, leaseTime, unit)) {
+            return null;
+        }
+        try {
+            return metrics.time(CLIENT, "fence", lockKey,
+                    () -> redissonClient.getAtomicLong(localLocks.fenceKey(lockKey)).incrementAndGet());
+        } catch (Exception e) {
+            log.error("Failed to get fencing token, lockKey: {}", lockKey, e);
+            unlock(lockKey);
+            return null;
+        }
+    }
+
+    /**
+     * 释放分布式锁
+     * @param lockKey 锁键
+     */
+    public void unlock(String lockKey) {
+        metrics.time(CLIENT, "unlock", lockKey, () -> {
+            try {
+                redissonClient.getLock(lockKey).unlock();
+            } catch (Exception e) {
+                metrics.error(CLIENT, "unlock", lockKey, e);
+                log.error("Failed to unlock, lockKey: {}", lockKey, e);
+            }
+        });
+    }
+
+    private boolean tryDistributedLock(String lockKey, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        // 会抛出受检异常，无法使用 metrics.time
+        Timer.Sample sample = metrics.start();
+        try {
+            return redissonClient.getLock(lockKey).tryLock(waitTime, leaseTime, unit);
+        } catch (RuntimeException e) {
+            metrics.error(CLIENT, "tryLock", lockKey, e);
+            throw e;
+        } finally {
+            metrics.stop(sample, CLIENT, "tryLock", lockKey);
+        }
+    }
+
+    // ============================ 异步操作 ============================
+    // 以下方法立即返回，调用方可以同时发起多个操作后再统一等待(如 CompletableFuture.allOf)
+    // 结果在 Redisson 的 Netty 线程上完成，后续回调如有阻塞操作请使用 xxxAsync(fn, executor) 切换线程
+    // 返回 boolean/集合 的方法与同步版本一致：失败时记录日志并以 false/null 正常完成
+
+    /**
+     * 异步设置缓存失效时间
+     * @param key 键
+     * @param time 时间
+     * @param timeUnit 时间单位
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> expireAsync(String key, long time, TimeUnit timeUnit) {
+        if (time <= 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return async("expire", key, () -> redissonClient.getBucket(key).expireAsync(Duration.ofMillis(timeUnit.toMillis(time))).thenApply(r -> true), false);
+    }
+
+    /**
+     * 异步获取缓存剩余存活时间
+     * @param key 键
+     * @return 剩余时间(毫秒)
+     */
+    public CompletionStage<Long> getExpireAsync(String key) {
+        return metrics.timeAsync(CLIENT, "getExpire", key, () -> redissonClient.getBucket(key).remainTimeToLiveAsync());
+    }
+
+    /**
+     * 异步判断key是否存在
+     * @param key 键
+     * @return 是否存在
+     */
+    public CompletionStage<Boolean> hasKeyAsync(String key) {
+        return async("hasKey", key, () -> redissonClient.getBucket(key).isExistsAsync(), false);
+    }
+
+    /**
+     * 异步删除缓存
+     * @param keys 可以传一个或多个key
+     * @return 删除完成(含近端缓存失效)
+     */
+    public CompletionStage<Void> delAsync(String... keys) {
+        if (keys == null || keys.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return async("del", keys, () -> chunkedValues.deleteKeysAsync(Arrays.asList(keys), false)
+                .thenComposeAsync(count -> {
+                    nearCache.invalidate(keys);
+                    return CompletableFuture.allOf(Arrays.stream(keys)
+                            .map(key -> localCachedMaps.clearIfManagedAsync(key).toCompletableFuture())
+                            .toArray(CompletableFuture[]::new));
+                }), null);
+    }
+
+    /**
+     * 异步的值与期望值相等时才删除(原子操作)
+     * @param key 键
+     * @param expected 期望值
+     * @return 是否已删除
+     */
+    public CompletionStage<Boolean> compareAndDeleteAsync(String key, Object expected) {
+        return async("compareAndDelete", key, () -> {
+            Codec codec = redissonClient.getConfig().getCodec();
+            return scriptEngine.<Long>evalAsync(LuaScript.COMPARE_AND_DELETE, RScript.ReturnType.INTEGER, key,
+                            scriptEngine.encode(codec.getValueEncoder(), expected))
+                    .thenApplyAsync(count -> {
+                        if (count != null && count > 0) {
+                            nearCache.invalidate(key);
+                            return true;
+                        }
+                        return false;
+                    });
+        }, false);
+    }
+
+    /**
+     * 异步获取缓存值，近端缓存命中时直接返回
+     * @param key 键
+     * @return 值
+     */
+    public CompletionStage<Object> getAsync(String key) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Object cached = nearCache.getIfPresent(NEAR_CACHE_NAMESPACE, key, null);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // 只采样，提升的值由同步读取写入进程内缓存
+        hotKeys.record(key, ClusterSlots::slot);
+        return metrics.timeAsync(CLIENT, "get", key, () -> redissonClient.getBucket(key, chunkedValues.readCodec()).getAsync());
+    }
+
+    /**
+     * 异步获取缓存值并刷新过期时间(一次往返)
+     * @param key 键
+     * @param time 时间 小于等于0时只获取不刷新
+     * @param timeUnit 时间单位
+     * @return 值
+     */
+    public CompletionStage<Object> getAndExpireAsync(String key, long time, TimeUnit timeUnit) {
+        if (key == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return metrics.timeAsync(CLIENT, "getAndExpire", key, () -> scriptEngine.<byte[]>evalAsync(LuaScript.GET_AND_EXPIRE,
+                        RScript.ReturnType.VALUE, key, scriptEngine.ttlArg(timeUnit.toMillis(time)))
+                .thenApply(raw -> scriptEngine.decode(chunkedValues.readCodec(), raw)));
+    }
+
+    /**
+     * 异步设置缓存值
+     * @param key 键
+     * @param value 值
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> setAsync(String key, Object value) {
+        return async("set", key, () -> chunkedValues.setPlainAsync(key, value, 0)
+                .thenApplyAsync(v -> {
+                    nearCache.invalidate(key);
+                    return true;
+                }), false);
+    }
+
+    /**
+     * 异步设置缓存值并指定过期时间
+     * @param key 键
+     * @param value 值
+     * @param time 时间 小于等于0时不过期
+     * @param timeUnit 时间单位
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> setAsync(String key, Object value, long time, TimeUnit timeUnit) {
+        if (time <= 0) {
+            return setAsync(key, value);
+        }
+        return async("set", key, () -> chunkedValues.setPlainAsync(key, value, timeUnit.toMillis(time))
+                .thenApplyAsync(v -> {
+                    nearCache.invalidate(key);
+                    return true;
+                }), false);
+    }
+
+    /**
+     * 发出后不等待结果的写入，用于非关键数据，失败时只记录日志
+     * @param key 键
+     * @param value 值
+     */
+    public void setAndForget(String key, Object value) {
+        setAsync(key, value);
+    }
+
+    /**
+     * 发出后不等待结果的写入并指定过期时间，用于非关键数据，失败时只记录日志
+     * @param key 键
+     * @param value 值
+     * @param time 时间 小于等于0时不过期
+     * @param timeUnit 时间单位
+     */
+    public void setAndForget(String key, Object value, long time, TimeUnit timeUnit) {
+        setAsync(key, value, time, timeUnit);
+    }
+
+    /**
+     * 异步获取Hash中的值，近端缓存或本地缓存命中时直接返回
+     * @param key 键
+     * @param field 项
+     * @return 值
+     */
+    public CompletionStage<Object> hgetAsync(String key, String field) {
+        if (localCachedMaps.isManaged(key)) {
+            return localCachedMaps.get(key).getAsync(field);
+        }
+        Object cached = nearCache.getIfPresent(NEAR_CACHE_NAMESPACE, key, field);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        hotKeys.record(key, ClusterSlots::slot);
+        return metrics.timeAsync(CLIENT, "hget", key, () -> redissonClient.getMap(key).getAsync(field));
+    }
+
+    /**
+     * 异步获取Hash中的所有键值(一次 HGETALL 读入普通Map)
+     * @param key 键
+     * @return 对应的多个键值
+     */
+    public CompletionStage<Map<Object, Object>> hmgetAsync(String key) {
+        return async("hgetall", key, () -> redissonClient.getMap(key).readAllMapAsync(), null);
+    }
+
+    /**
+     * 异步设置Hash多个键值
+     * @param key 键
+     * @param map 对应多个键值
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> hmsetAsync(String key, Map<String, Object> map) {
+        return async("hmset", key, () -> localCachedMaps.forWrite(key).putAllAsync(map)
+                .thenApplyAsync(v -> {
+                    nearCache.invalidateFields(key, map.keySet().toArray());
+                    return true;
+                }), false);
+    }
+
+    /**
+     * 异步设置Hash多个键值并指定过期时间
+     * @param key 键
+     * @param map 对应多个键值
+     * @param time 时间
+     * @param timeUnit 时间单位
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> hmsetAsync(String key, Map<String, Object> map, long time, TimeUnit timeUnit) {
+        return async("hmset", key, () -> hsetExpireAsync(key, map, time, timeUnit), false);
+    }
+
+    /**
+     * 异步向Hash表中放入数据
+     * @param key 键
+     * @param field 项
+     * @param value 值
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> hsetAsync(String key, String field, Object value) {
+        return async("hset", key, () -> localCachedMaps.forWrite(key).fastPutAsync(field, value)
+                .thenApplyAsync(created -> {
+                    nearCache.invalidateFields(key, field);
+                    return true;
+                }), false);
+    }
+
+    /**
+     * 异步向Hash表中放入数据并指定过期时间
+     * @param key 键
+     * @param field 项
+     * @param value 值
+     * @param time 时间
+     * @param timeUnit 时间单位
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> hsetAsync(String key, String field, Object value, long time, TimeUnit timeUnit) {
+        return async("hset", key, () -> hsetExpireAsync(key, Collections.singletonMap(field, value), time, timeUnit), false);
+    }
+
+    /**
+     * 异步删除Hash表中的值
+     * @param key 键
+     * @param fields 项 可以是多个
+     * @return 删除完成(含近端缓存失效)
+     */
+    public CompletionStage<Void> hdelAsync(String key, Object... fields) {
+        return async("hdel", key, () -> localCachedMaps.forWrite(key).fastRemoveAsync(fields)
+                .thenAcceptAsync(count -> nearCache.invalidateFields(key, fields)), null);
+    }
+
+    /**
+     * 异步获取Set中的所有值(一次 SMEMBERS 读入普通Set)
+     * @param key 键
+     * @return Set中的所有值
+     */
+    public CompletionStage<Set<Object>> sGetAsync(String key) {
+        return async("sGet", key, () -> redissonClient.<Object>getSet(key, elementCodec()).readAllAsync(), null);
+    }
+
+    /**
+     * 异步判断Set中是否包含某个值
+     * @param key 键
+     * @param value 值
+     * @return 是否包含
+     */
+    public CompletionStage<Boolean> sHasKeyAsync(String key, Object value) {
+        return metrics.timeAsync(CLIENT, "sHasKey", key, () -> redissonClient.getSet(key, elementCodec()).containsAsync(value));
+    }
+
+    /**
+     * 异步向Set中添加多个元素
+     * @param key 键
+     * @param values 值 可以是多个
+     * @return 是否至少有一个元素被成功添加
+     */
+    public CompletionStage<Boolean> sSetAsync(String key, Object... values) {
+        if (values == null || values.length == 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return async("sSet", key, () -> redissonClient.getSet(key, elementCodec()).addAllAsync(Arrays.asList(values)), false);
+    }
+
+    /**
+     * 异步获取List中指定范围的值
+     * @param key 键
+     * @param start 开始索引
+     * @param end 结束索引(包含)
+     * @return List中指定范围的值
+     */
+    public CompletionStage<List<Object>> lGetAsync(String key, long start, long end) {
+        return async("lGet", key, () -> redissonClient.<Object>getList(key, elementCodec()).rangeAsync((int) start, (int) end), null);
+    }
+
+    /**
+     * 异步向List中添加多个元素
+     * @param key 键
+     * @param value 值列表
+     * @return 设置是否成功
+     */
+    public CompletionStage<Boolean> lSetAsync(String key, List<Object> value) {
+        return async("lSet", key, () -> redissonClient.getList(key, elementCodec()).addAllAsync(value).thenApply(r -> true), false);
+    }
+
+    /**
+     * 异步获取分布式锁
+     * Redisson 的锁按持有者标识区分重入与释放，异步回调不在发起线程上执行，因此需要显式传入持有者标识
+     * 不经过本地分段锁(本地锁按线程持有，不适用于异步调用)
+     * @param lockKey 锁键
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间
+     * @param unit 时间单位
+     * @param ownerId 持有者标识(如发起线程的 id)，释放时必须使用同一个值
+     * @return 是否获取成功
+     */
+    public CompletionStage<Boolean> tryLockAsync(String lockKey, long waitTime, long leaseTime, TimeUnit unit, long ownerId) {
+        return metrics.timeAsync(CLIENT, "tryLock", lockKey,
+                () -> redissonClient.getLock(lockKey).tryLockAsync(waitTime, leaseTime, unit, ownerId));
+    }
+
+    /**
+     * 异步释放分布式锁
+     * @param lockKey 锁键
+     * @param ownerId 获取锁时使用的持有者标识
+     * @return 释放完成
+     */
+    public CompletionStage<Void> unlockAsync(String lockKey, long ownerId) {
+        return async("unlock", lockKey, () -> redissonClient.getLock(lockKey).unlockAsync(ownerId), null);
+    }
+
+    private CompletionStage<Boolean> hsetExpireAsync(String key, Map<String, Object> map, long time, TimeUnit timeUnit) {
+        return scriptEngine.<Long>evalAsync(LuaScript.HSET_EXPIRE, RScript.ReturnType.INTEGER, key, hashArgs(map, time, timeUnit))
+                .thenComposeAsync(count -> {
+                    nearCache.invalidateFields(key, map.keySet().toArray());
+                    return localCachedMaps.clearIfManagedAsync(key);
+                })
+                .thenApply(v -> true);
+    }
+
+    // 计时并在失败时记录日志、以 fallback 正常完成
+    // 写入后的近端缓存失效可能等待进行中的回源，因此写操作的后续处理都用 thenXxxAsync 离开 Netty 线程
+    private <T> CompletionStage<T> async(String operation, Object key, Supplier<? extends CompletionStage<T>> call, T fallback) {
+        return metrics.timeAsync(CLIENT, operation, key, call).exceptionally(e -> {
+            log.error("Failed to {} asynchronously, key: {}", operation,
+                    key instanceof Object[] ? Arrays.toString((Object[]) key) : key, e);
+            return fallback;
+        });
+    }
+
+    // 集合元素按字节匹配，使用紧凑编码时仍以旧格式编码，保证与已有数据一致
+    private Codec elementCodec() {
+        Codec codec = redissonClient.getConfig().getCodec();
+        return codec instanceof CompactCodec ? ((CompactCodec) codec).getElementCodec() : codec;
     }
-}
\ No newline at end of file
+}
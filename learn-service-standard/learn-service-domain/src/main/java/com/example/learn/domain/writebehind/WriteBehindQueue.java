@@ -0,0 +1,288 @@
+package com.example.learn.domain.writebehind;
+
+import com.example.learn.domain.batch.CacheBatch;
+import com.example.learn.domain.batch.FlushScheduler;
+import com.example.learn.domain.batch.KeyResult;
+import com.example.learn.domain.batch.RedisTemplateBatch;
+import com.example.learn.domain.cache.NearCache;
+import com.example.learn.domain.config.WriteBehindProperties;
+import com.example.learn.domain.metrics.CacheMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 写合并的延迟写入(write-behind)
+ * 写入先放入本地有界队列，同一个key(Hash项)只保留最后一次的值，后台定时或积累到 flushBatchSize 个key时通过管道批量写入Redis
+ * 队列满时写入方最多等待 offerTimeout，仍没有空位则返回false，由调用方直接写入Redis(背压，不丢数据)
+ * 写入失败的值留在队列中下次重试；关闭时同步刷新剩余的值，关闭后的写入直接写入Redis
+ * RedisUtils 直接写入/删除/设置过期时间前通过 discard/expire 处理队列中同一个key的值，延迟写入不会覆盖之后的直接操作
+ * 代价：Redis 中的值最多落后 flushInterval，期间读取拿到的是旧值；进程异常退出时未刷新的写入会丢失
+ */
+@Slf4j
+@Component
+public class WriteBehindQueue {
+    // 指标中的 client 标签
+    private static final String CLIENT = "redis-template";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private WriteBehindProperties properties;
+
+    private final Map<Target, Pending> pending = new ConcurrentHashMap<>();
+    // 队列空位，每个不同的key占一个，写入Redis后归还
+    private Semaphore slots;
+    // 已提交但尚未执行的按数量触发的刷新，避免重复提交
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private FlushScheduler scheduler;
+    private Counter coalesced;
+    private Counter overflow;
+
+    @PostConstruct
+    public void init() {
+        slots = new Semaphore(properties.getCapacity());
+        scheduler = new FlushScheduler("write-behind", properties.getFlushInterval(), this::flush);
+        Gauge.builder("learn.cache.write-behind.pending", pending, Map::size).register(metrics.getRegistry());
+        Gauge.builder("learn.cache.write-behind.lag", this, WriteBehindQueue::lagMillis)
+                .baseUnit("milliseconds")
+                .register(metrics.getRegistry());
+        coalesced = Counter.builder("learn.cache.write-behind.coalesced").register(metrics.getRegistry());
+        overflow = Counter.builder("learn.cache.write-behind.overflow").register(metrics.getRegistry());
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (scheduler.shutdown(properties.getShutdownRetries())) {
+            return;
+        }
+        pending.forEach((target, value) ->
+                log.error("Failed to flush write-behind value on shutdown, key: {}, field: {}", target.getKey(), target.getField()));
+    }
+
+    /**
+     * 放入普通缓存的值
+     * @param key 键
+     * @param value 值
+     * @param ttlMillis 过期时间(毫秒) 小于等于0时不过期
+     * @return 是否已放入队列，队列满且等待超时(或被中断)时返回false
+     */
+    public boolean offer(String key, Object value, long ttlMillis) {
+        return offer(new Target(key, null), value, ttlMillis);
+    }
+
+    /**
+     * 放入Hash项的值
+     * @param key 键
+     * @param field 项
+     * @param value 值
+     * @param ttlMillis 整个Hash的过期时间(毫秒) 小于等于0时不设置
+     * @return 是否已放入队列，队列满且等待超时(或被中断)时返回false
+     */
+    public boolean offer(String key, String field, Object value, long ttlMillis) {
+        return offer(new Target(key, field), value, ttlMillis);
+    }
+
+    /**
+     * 直接写入或删除整个key前调用，丢弃该key尚未刷新的值(包括各Hash项)，避免随后的刷新覆盖直接写入的结果
+     * 已在刷新中的值仍可能晚于直接写入到达Redis
+     * @param key 键
+     */
+    public void discard(String key) {
+        // 队列有界(capacity)，为空时不遍历
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Target target : pending.keySet()) {
+            if (target.getKey().equals(key)) {
+                remove(target);
+            }
+        }
+    }
+
+    /**
+     * 直接写入或删除Hash项前调用，丢弃这些项以及该key作为普通缓存尚未刷新的值
+     * @param key 键
+     * @param fields 项
+     */
+    public void discard(String key, Object... fields) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        remove(new Target(key, null));
+        for (Object field : fields) {
+            remove(new Target(key, String.valueOf(field)));
+        }
+    }
+
+    /**
+     * 直接设置过期时间时调用，尚未刷新的值改用新的过期时间，避免刷新时覆盖
+     * @param key 键
+     * @param ttlMillis 过期时间(毫秒)
+     */
+    public void expire(String key, long ttlMillis) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Target target : pending.keySet()) {
+            if (target.getKey().equals(key)) {
+                pending.computeIfPresent(target, (k, old) -> new Pending(old.getValue(), ttlMillis, old.getEnqueuedAt()));
+            }
+        }
+    }
+
+    /**
+     * 立即刷新队列中的所有值
+     * @return 刷新失败(留在队列中)的个数
+     */
+    public int flush() {
+        flushRequested.set(false);
+        List<Target> targets = new ArrayList<>();
+        List<Pending> values = new ArrayList<>();
+        pending.forEach((target, value) -> {
+            targets.add(target);
+            values.add(value);
+        });
+        return FlushScheduler.inBatches(targets.size(), properties.getFlushBatchSize(),
+                (from, to) -> flush(targets.subList(from, to), values.subList(from, to)));
+    }
+
+    /**
+     * 当前队列中不同key(Hash项)的个数
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    private boolean offer(Target target, Object value, long ttlMillis) {
+        if (scheduler.isShutdown()) {
+            // 关闭后不再刷新，由调用方直接写入
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        // 已在队列中的key直接覆盖，不占用新的空位
+        Pending replaced = pending.computeIfPresent(target, (k, old) -> new Pending(value, ttlMillis, old.getEnqueuedAt()));
+        if (replaced != null) {
+            coalesced.increment();
+            return true;
+        }
+        if (!acquireSlot()) {
+            overflow.increment();
+            return false;
+        }
+        pending.merge(target, new Pending(value, ttlMillis, now), (old, latest) -> {
+            // 并发放入了同一个key，归还多占的空位
+            slots.release();
+            coalesced.increment();
+            return new Pending(latest.getValue(), latest.getTtlMillis(), old.getEnqueuedAt());
+        });
+        if (pending.size() >= properties.getFlushBatchSize() && flushRequested.compareAndSet(false, true) && !scheduler.trigger()) {
+            flushRequested.set(false);
+        }
+        return true;
+    }
+
+    private boolean acquireSlot() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        try {
+            return slots.tryAcquire(properties.getOfferTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int flush(List<Target> targets, List<Pending> values) {
+        CacheBatch batch = new RedisTemplateBatch(redisTemplate, nearCache);
+        List<Integer> commands = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            Pending value = values.get(i);
+            commands.add(batch.size());
+            if (target.getField() == null) {
+                batch.set(target.getKey(), value.getValue(), value.getTtlMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                batch.hset(target.getKey(), target.getField(), value.getValue());
+                batch.expire(target.getKey(), value.getTtlMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        List<KeyResult<Object>> results = metrics.time(CLIENT, "writeBehindFlush", targets.get(0).getKey(), batch::execute);
+        int failed = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            Target target = targets.get(i);
+            KeyResult<Object> error = firstError(results, commands.get(i), i + 1 < targets.size() ? commands.get(i + 1) : results.size());
+            if (error != null) {
+                metrics.error(CLIENT, "writeBehindFlush", target.getKey(), error.getError());
+                log.warn("Failed to flush write-behind value, will retry, key: {}, field: {}", target.getKey(), target.getField(), error.getError());
+                failed++;
+            } else if (pending.remove(target, values.get(i))) {
+                // 刷新期间被覆盖的值保留在队列中，下次刷新写入最新值
+                slots.release();
+            }
+        }
+        return failed;
+    }
+
+    // 一个值可能对应多条命令(HSET + PEXPIRE)，任一失败都视为未写入
+    private static KeyResult<Object> firstError(List<KeyResult<Object>> results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!results.get(i).isSuccess()) {
+                return results.get(i);
+            }
+        }
+        return null;
+    }
+
+    private void remove(Target target) {
+        if (pending.remove(target) != null) {
+            slots.release();
+        }
+    }
+
+    // 队列中最早一次尚未写入Redis的写入距今的时间
+    private double lagMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (Pending value : pending.values()) {
+            oldest = Math.min(oldest, value.getEnqueuedAt());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    @Value
+    private static class Target {
+        String key;
+        String field;
+    }
+
+    @Value
+    private static class Pending {
+        Object value;
+        long ttlMillis;
+        // 该key第一次放入(覆盖时保留)的时间，用于计算滞后
+        long enqueuedAt;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.learn.domain.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedValueTest {
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void expiredValueAlwaysRefreshes() {
+        CachedValue value = new CachedValue("v", 0, NOW);
+
+        assertTrue(value.shouldRefresh(NOW, 1.0));
+        assertTrue(value.shouldRefresh(NOW + 1, 0));
+    }
+
+    @Test
+    void zeroDeltaOrBetaNeverRefreshesEarly() {
+        CachedValue fast = new CachedValue("v", 0, NOW + 1);
+        CachedValue slow = new CachedValue("v", 1000, NOW + 1);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(fast.shouldRefresh(NOW, 1.0));
+            assertFalse(slow.shouldRefresh(NOW, 0));
+        }
+    }
+
+    @Test
+    void slowLoadsCloseToExpiryRefreshEarlyMostOfTheTime() {
+        // 距逻辑过期 10ms，回源 100ms：P(rand <= e^(-10 / 100)) 约 0.90
+        CachedValue value = new CachedValue("v", 100, NOW + 10);
+
+        int refreshed = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (value.shouldRefresh(NOW, 1.0)) {
+                refreshed++;
+            }
+        }
+        assertTrue(refreshed > 800, "refreshed: " + refreshed);
+    }
+
+    @Test
+    void fastLoadsFarFromExpiryDoNotRefresh() {
+        CachedValue value = new CachedValue("v", 1, NOW + 10000);
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(value.shouldRefresh(NOW, 1.0));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.learn.domain.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterSlotsTest {
+
+    @Test
+    void slotMatchesRedisCrc16() {
+        assertEquals(12739, ClusterSlots.slot("123456789"));
+        assertEquals(ClusterSlots.slot("foo"), ClusterSlots.slot("{foo}:bar"));
+    }
+
+    @Test
+    void coLocatedWrapsKeyWithoutHashTag() {
+        String key = "order:1001";
+
+        String derived = ClusterSlots.coLocated(key, ":lock");
+
+        assertEquals("{order:1001}:lock", derived);
+        assertEquals(ClusterSlots.slot(key), ClusterSlots.slot(derived));
+    }
+
+    @Test
+    void coLocatedKeepsExistingHashTag() {
+        String key = "{user:1}:profile";
+
+        String derived = ClusterSlots.coLocated(key, ":fence");
+
+        assertEquals("{user:1}:profile:fence", derived);
+        assertEquals(ClusterSlots.slot(key), ClusterSlots.slot(derived));
+    }
+
+    @Test
+    void groupBySlotKeepsOrderWithinSlot() {
+        List<String> keys = Arrays.asList("{a}:1", "other", "{a}:2", "{a}:3");
+
+        Map<Integer, List<String>> groups = ClusterSlots.groupBySlot(keys);
+
+        assertEquals(Arrays.asList("{a}:1", "{a}:2", "{a}:3"), groups.get(ClusterSlots.slot("a")));
+        assertTrue(groups.get(ClusterSlots.slot("other")).contains("other"));
+        assertEquals(keys.size(), groups.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void groupBySlotUsesGivenSlotFunction() {
+        Map<Integer, List<String>> groups = ClusterSlots.groupBySlot(Arrays.asList("a", "bb", "c"), String::length);
+
+        assertEquals(Arrays.asList("a", "c"), groups.get(1));
+        assertEquals(Arrays.asList("bb"), groups.get(2));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.learn.domain.codec;
+
+import org.junit.jupiter.api.Test;
+import org.redisson.codec.SmileJacksonCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactFormatTest {
+    private static final String LARGE = String.join("", Collections.nCopies(500, "compact-"));
+
+    @Test
+    void smallValueIsWrittenWithUncompressedHeader() throws Exception {
+        CompactFormat format = format(1024, true);
+
+        byte[] bytes = format.encode("value");
+
+        assertEquals(CompactFormat.MAGIC, bytes[0]);
+        assertEquals((CompactFormat.VERSION << 4) | CompressionType.NONE.getId(), bytes[1]);
+        assertEquals("value", format.decode(bytes));
+    }
+
+    @Test
+    void valueAboveThresholdIsCompressed() throws Exception {
+        CompactFormat format = format(1024, true);
+
+        byte[] bytes = format.encode(LARGE);
+
+        assertEquals(CompactFormat.MAGIC, bytes[0]);
+        assertEquals((CompactFormat.VERSION << 4) | CompressionType.LZ4.getId(), bytes[1]);
+        assertTrue(bytes.length < LARGE.length());
+        assertEquals(LARGE, format.decode(bytes));
+    }
+
+    @Test
+    void valueBelowThresholdIsNotCompressed() throws Exception {
+        CompactFormat format = format(LARGE.length() * 2, true);
+
+        byte[] bytes = format.encode(LARGE);
+
+        assertEquals((CompactFormat.VERSION << 4) | CompressionType.NONE.getId(), bytes[1]);
+        assertEquals(LARGE, format.decode(bytes));
+    }
+
+    @Test
+    void legacyBytesAreDecodedWithLegacyDecoder() throws Exception {
+        CompactFormat format = format(1024, true);
+
+        assertEquals("legacy", format.decode("legacy".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void legacyFormatIsWrittenUntilWriteCompactIsEnabled() throws Exception {
+        CompactFormat format = format(1024, false);
+
+        byte[] bytes = format.encode("value");
+
+        assertEquals("value", new String(bytes, StandardCharsets.UTF_8));
+        assertEquals("value", format.decode(bytes));
+    }
+
+    @Test
+    void roundTripsMaps() throws Exception {
+        CompactFormat format = format(0, true);
+        Map<String, Object> value = Collections.singletonMap("name", LARGE);
+
+        assertEquals(value, format.decode(format.encode(value)));
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        CompactFormat format = format(1024, true);
+        byte[] bytes = {CompactFormat.MAGIC, (byte) ((CompactFormat.VERSION + 1) << 4), 0};
+
+        assertThrows(IOException.class, () -> format.decode(bytes));
+    }
+
+    private static CompactFormat format(int threshold, boolean writeCompact) {
+        return new CompactFormat(new SmileJacksonCodec().getObjectMapper(), CompressionType.LZ4, threshold, writeCompact,
+                value -> value.toString().getBytes(StandardCharsets.UTF_8),
+                bytes -> new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.learn.domain.hotkey;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void addReturnsRunningEstimate() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+
+        assertEquals(1, sketch.add("key:1"));
+        assertEquals(2, sketch.add("key:1"));
+        assertEquals(2, sketch.estimate("key:1"));
+        assertEquals(0, sketch.estimate("key:2"));
+    }
+
+    @Test
+    void neverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j <= i % 10; j++) {
+                sketch.add("key:" + i);
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(sketch.estimate("key:" + i) >= i % 10 + 1, "key:" + i);
+        }
+    }
+
+    @Test
+    void hotKeyStandsOutFromBackground() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 10000; i++) {
+            sketch.add("key:" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("hot");
+        }
+        assertTrue(sketch.estimate("hot") >= 1000);
+        assertTrue(sketch.estimate("key:1") < 100);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.learn.domain.lock;
+
+import com.example.learn.domain.config.LockProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalLocksTest {
+    private LocalLocks locks;
+
+    @BeforeEach
+    void setUp() {
+        LockProperties properties = new LockProperties();
+        properties.setLocalStriping(true);
+        locks = new LocalLocks();
+        ReflectionTestUtils.setField(locks, "properties", properties);
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                locks.tryAcquire("lock:a", 1, TimeUnit.SECONDS);
+                held.countDown();
+                done.await();
+                locks.release("lock:a");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+
+        assertFalse(locks.tryAcquire("lock:a", 0, TimeUnit.MILLISECONDS));
+        assertTrue(locks.tryAcquire("lock:b", 0, TimeUnit.MILLISECONDS));
+        locks.release("lock:b");
+
+        done.countDown();
+        holder.join(1000);
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void unusedLocksAreRemoved() throws Exception {
+        assertTrue(locks.tryAcquire("lock:a", 0, TimeUnit.MILLISECONDS));
+        assertEquals(1, locks.size());
+        locks.release("lock:a");
+        assertEquals(0, locks.size());
+    }
+
+    @Test
+    void releaseWithoutHoldingFails() {
+        assertThrows(IllegalMonitorStateException.class, () -> locks.release("lock:a"));
+    }
+}
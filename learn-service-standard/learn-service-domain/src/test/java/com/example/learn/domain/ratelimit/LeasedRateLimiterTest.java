@@ -0,0 +1,79 @@
+package com.example.learn.domain.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeasedRateLimiterTest {
+    private final List<Long> requested = new ArrayList<>();
+
+    @Test
+    void permitsAreServedLocallyUntilLeaseIsUsedUp() {
+        LeasedRateLimiter limiter = limiter(permits -> grant(permits, 60000), false);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(Arrays.asList(10L), requested);
+
+        assertTrue(limiter.tryAcquire());
+        // 在 refillInterval 内用完，租约加倍
+        assertEquals(Arrays.asList(10L, 20L), requested);
+    }
+
+    @Test
+    void exhaustedWindowIsNotRetriedUntilItEnds() {
+        LeasedRateLimiter limiter = limiter(permits -> grant(0, 60000), true);
+
+        assertFalse(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, requested.size());
+    }
+
+    @Test
+    void leaseFailureFollowsFailOpen() {
+        LeasedRateLimiter open = limiter(permits -> fail(permits), true);
+        assertTrue(open.tryAcquire());
+        assertTrue(open.tryAcquire());
+        assertEquals(1, requested.size());
+
+        requested.clear();
+        LeasedRateLimiter closed = limiter(permits -> fail(permits), false);
+        assertFalse(closed.tryAcquire());
+        assertFalse(closed.tryAcquire());
+        assertEquals(1, requested.size());
+    }
+
+    @Test
+    void partialGrantIsHonored() {
+        LeasedRateLimiter limiter = limiter(permits -> {
+            requested.add(permits);
+            return new long[]{requested.size() == 1 ? 2 : 0, 60000};
+        }, false);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, requested.size());
+    }
+
+    private LeasedRateLimiter limiter(LeasedRateLimiter.Leaser leaser, boolean failOpen) {
+        return new LeasedRateLimiter("rate:test", 1000, 60000, leaser, 10, 100, 0.1, 60000, failOpen);
+    }
+
+    private long[] grant(long permits, long remainingMillis) {
+        requested.add(permits);
+        return new long[]{permits, remainingMillis};
+    }
+
+    private long[] fail(long permits) {
+        requested.add(permits);
+        throw new IllegalStateException("redis unavailable");
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.learn.domain.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefetchIteratorTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void returnsAllElementsInOrderAcrossBatches() {
+        for (int size : new int[]{0, 1, 9, 10, 11, 30}) {
+            List<Integer> source = range(size);
+            PrefetchIterator<Integer> iterator = new PrefetchIterator<>(source.iterator(), 10, executor, null);
+
+            assertEquals(source, drain(iterator), "size: " + size);
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+    }
+
+    @Test
+    void fallsBackToCallerThreadWhenExecutorRejects() {
+        List<Integer> source = range(25);
+        PrefetchIterator<Integer> iterator = new PrefetchIterator<>(source.iterator(), 10, r -> {
+            throw new RejectedExecutionException("full");
+        }, null);
+
+        assertEquals(source, drain(iterator));
+    }
+
+    @Test
+    void closeReleasesResourceAndStopsIteration() {
+        AtomicBoolean closed = new AtomicBoolean();
+        PrefetchIterator<Integer> iterator = new PrefetchIterator<>(range(100).iterator(), 10, executor, () -> closed.set(true));
+
+        assertEquals(0, (int) iterator.next());
+        iterator.close();
+
+        assertTrue(closed.get());
+        // 当前批次已在内存中，关闭后不再读取新的批次
+        assertEquals(9, drain(iterator).size());
+    }
+
+    @Test
+    void sourceFailureIsRethrown() {
+        Iterator<Integer> source = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                throw new IllegalStateException("cursor failed");
+            }
+        };
+        PrefetchIterator<Integer> iterator = new PrefetchIterator<>(source, 10, executor, null);
+
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+        assertFalse(iterator.hasNext());
+    }
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> drain(Iterator<Integer> iterator) {
+        List<Integer> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.learn.domain.utils;
+
+import com.example.learn.domain.config.CacheMetricsProperties;
+import com.example.learn.domain.config.LockProperties;
+import com.example.learn.domain.lock.LocalLocks;
+import com.example.learn.domain.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedissonUtilsLockTest {
+    private RedissonUtils redissonUtils;
+    private LocalLocks localLocks;
+    // 模拟的分布式锁状态
+    private volatile boolean heldByCurrentThread;
+    private final AtomicInteger redisAttempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        LockProperties lockProperties = new LockProperties();
+        lockProperties.setLocalStriping(true);
+        localLocks = new LocalLocks();
+        ReflectionTestUtils.setField(localLocks, "properties", lockProperties);
+
+        CacheMetricsProperties metricsProperties = new CacheMetricsProperties();
+        metricsProperties.setEnabled(false);
+        CacheMetrics metrics = new CacheMetrics();
+        ReflectionTestUtils.setField(metrics, "properties", metricsProperties);
+        ReflectionTestUtils.setField(metrics, "registry", new SimpleMeterRegistry());
+
+        RLock lock = (RLock) Proxy.newProxyInstance(RLock.class.getClassLoader(), new Class<?>[]{RLock.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "isHeldByCurrentThread":
+                    return heldByCurrentThread;
+                case "tryLock":
+                    redisAttempts.incrementAndGet();
+                    return true;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        RedissonClient client = (RedissonClient) Proxy.newProxyInstance(RedissonClient.class.getClassLoader(),
+                new Class<?>[]{RedissonClient.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getLock")) {
+                        return lock;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        redissonUtils = new RedissonUtils();
+        ReflectionTestUtils.setField(redissonUtils, "redissonClient", client);
+        ReflectionTestUtils.setField(redissonUtils, "localLocks", localLocks);
+        ReflectionTestUtils.setField(redissonUtils, "metrics", metrics);
+    }
+
+    @Test
+    void reentryDoesNotQueueBehindLocalWaiter() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        // 另一个本地线程正在该锁键的本地锁上向 Redis 竞争
+        Thread waiter = new Thread(() -> {
+            try {
+                localLocks.tryAcquire("lock:a", 1, TimeUnit.SECONDS);
+                held.countDown();
+                done.await();
+                localLocks.release("lock:a");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+
+        heldByCurrentThread = true;
+        assertTrue(redissonUtils.tryLock("lock:a", 0, 10, TimeUnit.SECONDS));
+        assertEquals(1, redisAttempts.get());
+
+        done.countDown();
+        waiter.join(1000);
+    }
+
+    @Test
+    void localQueueGatesOnlyTheRedisAttempt() throws Exception {
+        assertTrue(redissonUtils.tryLock("lock:a", 0, 10, TimeUnit.SECONDS));
+        assertEquals(0, localLocks.size());
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                localLocks.tryAcquire("lock:a", 1, TimeUnit.SECONDS);
+                held.countDown();
+                done.await();
+                localLocks.release("lock:a");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        assertTrue(held.await(1, TimeUnit.SECONDS));
+        assertFalse(redissonUtils.tryLock("lock:a", 0, 10, TimeUnit.SECONDS));
+        assertTrue(redissonUtils.tryLock("lock:b", 0, 10, TimeUnit.SECONDS));
+
+        done.countDown();
+        waiter.join(1000);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.learn.infrastructure.cache;
+
+import com.example.learn.domain.cluster.ClusterSlots;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 完整的缓存键，字节和槽位在创建时计算一次
+ * 由 MyCacheKey 创建并缓存，不要自行构造；读写通过 CacheKeyOperations，按键族的编解码器和过期策略执行
+ * @param <V> 值类型
+ */
+public final class CacheKey<V> {
+    private final MyCacheKey<V> family;
+    private final String value;
+    private final byte[] bytes;
+    private final int slot;
+
+    CacheKey(MyCacheKey<V> family, String value) {
+        this.family = family;
+        this.value = value;
+        this.bytes = value.getBytes(StandardCharsets.UTF_8);
+        this.slot = ClusterSlots.slot(bytes);
+    }
+
+    public MyCacheKey<V> getFamily() {
+        return family;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * UTF-8 字节，调用方不要修改
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 按 UTF-8 字节计算的槽位，与 Redisson(及 StringRedisSerializer)实际发送的键一致
+     * RedisTemplate 默认以 JDK 序列化发送键，槽位不同，不能用于 RedisUtils 的批量分组
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof CacheKey && value.equals(((CacheKey<?>) o).value));
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.learn.infrastructure.cache;
+
+import com.example.learn.domain.cache.NearCache;
+import com.example.learn.domain.cluster.ClusterFanout;
+import com.example.learn.domain.metrics.CacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按键族读写缓存
+ * 使用键族声明的编解码器(未声明时为客户端默认编解码器)和过期策略，调用方不再手工传入 TTL
+ * 通过 Redisson 发送，键按 UTF-8 字节编码，批量删除直接使用 CacheKey 预先计算的槽位分组
+ */
+@Slf4j
+@Component
+public class CacheKeyOperations {
+    // 指标中的 client 标签
+    private static final String CLIENT = "redisson";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private NearCache nearCache;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private ClusterFanout fanout;
+
+    /**
+     * 获取缓存值
+     * @param key 键
+     * @return 值，不存在或失败时返回null
+     */
+    public <V> V get(CacheKey<V> key) {
+        return metrics.time(CLIENT, "get", key.getValue(), () -> {
+            try {
+                return bucket(key).get();
+            } catch (Exception e) {
+                metrics.error(CLIENT, "get", key.getValue(), e);
+                log.error("Failed to get value, key: {}", key, e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 设置缓存值，过期时间取自键族(含随机浮动)
+     * @param key 键
+     * @param value 值
+     * @return 设置是否成功
+     */
+    public <V> boolean set(CacheKey<V> key, V value) {
+        return metrics.time(CLIENT, "set", key.getValue(), () -> {
+            try {
+                long ttlMillis = key.getFamily().ttlMillis();
+                if (ttlMillis > 0) {
+                    bucket(key).set(value, ttlMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    bucket(key).set(value);
+                }
+                nearCache.invalidate(key.getValue());
+                return true;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "set", key.getValue(), e);
+                log.error("Failed to set value, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 按键族的过期时间续期
+     * @param key 键
+     * @return 键存在且设置成功时返回true，键族不过期时返回false
+     */
+    public boolean expire(CacheKey<?> key) {
+        long ttlMillis = key.getFamily().ttlMillis();
+        if (ttlMillis <= 0) {
+            return false;
+        }
+        return metrics.time(CLIENT, "expire", key.getValue(), () -> {
+            try {
+                return redissonClient.getBucket(key.getValue()).expire(Duration.ofMillis(ttlMillis));
+            } catch (Exception e) {
+                metrics.error(CLIENT, "expire", key.getValue(), e);
+                log.error("Failed to set expire, key: {}", key, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 删除缓存，按预先计算的槽位分组，每个槽位一条 DEL，集群模式下各节点并行执行
+     * @param keys 键
+     * @return 删除的个数，失败时返回0
+     */
+    public long del(Collection<? extends CacheKey<?>> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        List<CacheKey<?>> list = new ArrayList<>(keys);
+        return metrics.time(CLIENT, "del", list, () -> {
+            try {
+                long count = fanout.sumBySlot(list, CacheKey::getSlot, slotKeys -> redissonClient.getKeys().delete(names(slotKeys)));
+                nearCache.invalidate(names(list));
+                return count;
+            } catch (Exception e) {
+                metrics.error(CLIENT, "del", list, e);
+                log.error("Failed to delete keys: {}", list, e);
+                return 0L;
+            }
+        });
+    }
+
+    private <V> RBucket<V> bucket(CacheKey<V> key) {
+        return key.getFamily().getCodec() == null
+                ? redissonClient.getBucket(key.getValue())
+                : redissonClient.getBucket(key.getValue(), key.getFamily().getCodec());
+    }
+
+    private static String[] names(List<CacheKey<?>> keys) {
+        String[] names = new String[keys.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = keys.get(i).getValue();
+        }
+        return names;
+    }
+}
@@ -1,4 +1,213 @@
 package com.example.learn.infrastructure.cache;
 
-public class MyCacheKey {
+import com.example.learn.domain.cache.TtlJitter;
+import com.example.learn.domain.cluster.ClusterSlots;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.redisson.client.codec.Codec;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存键注册表
+ * 每个键族声明前缀、过期策略、编解码器和可选的 hash-tag，缓存键统一通过 key(...) 创建，不再手工拼接字符串
+ * 创建过的键(含字节和槽位)按键族缓存复用，热点键不会每次调用都重新分配
+ * <pre>
+ * HashTag.NONE    prefix:id[:suffix]
+ * HashTag.ID      prefix:{id}[:suffix]   同一个 id 的相关键落在同一槽位，可以一起做多key操作/管道
+ * HashTag.FAMILY  {prefix}:id[:suffix]   整个键族落在同一槽位，可以对任意键做多key操作，但会集中到一个节点
+ * </pre>
+ * @param <V> 值类型
+ */
+public final class MyCacheKey<V> {
+
+    public enum HashTag {
+        NONE, ID, FAMILY
+    }
+
+    private static final String SEPARATOR = ":";
+
+    // 前缀 -> 键族，类加载时注册，前缀重复时启动失败
+    private static final Map<String, MyCacheKey<?>> REGISTRY = new ConcurrentHashMap<>();
+
+    // ============================= 键族 ============================
+    // 在此声明业务键族，例如：
+    // public static final MyCacheKey<Object> SOMETHING = builder("learn:something", Object.class)
+    //         .ttl(Duration.ofMinutes(5)).ttlJitter(0.1).hashTag(HashTag.ID).build();
+
+    // ============================= 键族定义 ============================
+
+    private final String prefix;
+    private final Class<V> valueType;
+    private final Duration ttl;
+    private final double ttlJitter;
+    private final Codec codec;
+    private final HashTag hashTag;
+    private final CacheKey<V> root;
+    private final Cache<Object, CacheKey<V>> keys;
+
+    private MyCacheKey(Builder<V> builder) {
+        this.prefix = builder.prefix;
+        this.valueType = builder.valueType;
+        this.ttl = builder.ttl;
+        this.ttlJitter = builder.ttlJitter;
+        this.codec = builder.codec;
+        this.hashTag = builder.hashTag;
+        this.root = new CacheKey<>(this, hashTag == HashTag.FAMILY ? "{" + prefix + "}" : prefix);
+        this.keys = builder.maxCachedKeys > 0 ? Caffeine.newBuilder().maximumSize(builder.maxCachedKeys).build() : null;
+    }
+
+    public static <V> Builder<V> builder(String prefix, Class<V> valueType) {
+        return new Builder<>(prefix, valueType);
+    }
+
+    /**
+     * 所有已注册的键族
+     */
+    public static Collection<MyCacheKey<?>> families() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+
+    /**
+     * 按槽位分组(使用预先计算的槽位)，组内保持入参顺序
+     */
+    public static <V> Map<Integer, List<CacheKey<V>>> groupBySlot(Collection<CacheKey<V>> keys) {
+        return ClusterSlots.groupBySlot(keys, CacheKey::getSlot);
+    }
+
+    // ============================= 创建键 ============================
+
+    /**
+     * 不带 id 的键(只有前缀)
+     */
+    public CacheKey<V> key() {
+        return root;
+    }
+
+    /**
+     * @param id 业务ID
+     */
+    public CacheKey<V> key(Object id) {
+        return keys == null ? create(id, null) : keys.get(id, k -> create(id, null));
+    }
+
+    /**
+     * 同一个 id 下的相关键
+     * @param id 业务ID
+     * @param suffix 后缀
+     */
+    public CacheKey<V> key(Object id, String suffix) {
+        return keys == null ? create(id, suffix) : keys.get(Arrays.asList(id, suffix), k -> create(id, suffix));
+    }
+
+    private CacheKey<V> create(Object id, String suffix) {
+        StringBuilder sb = new StringBuilder(root.getValue()).append(SEPARATOR);
+        if (hashTag == HashTag.ID) {
+            sb.append('{').append(id).append('}');
+        } else {
+            sb.append(id);
+        }
+        if (suffix != null) {
+            sb.append(SEPARATOR).append(suffix);
+        }
+        return new CacheKey<>(this, sb.toString());
+    }
+
+    // ============================= 过期策略 ============================
+
+    /**
+     * 本次写入使用的过期时间(毫秒)，按 ttlJitter 随机浮动
+     * @return 过期时间，0 表示不过期
+     */
+    public long ttlMillis() {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return 0;
+        }
+        return TtlJitter.apply(ttl.toMillis(), ttlJitter);
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public Class<V> getValueType() {
+        return valueType;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Redisson 编解码器，null 表示使用客户端默认编解码器
+     */
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public HashTag getHashTag() {
+        return hashTag;
+    }
+
+    @Override
+    public String toString() {
+        return prefix;
+    }
+
+    public static class Builder<V> {
+        private final String prefix;
+        private final Class<V> valueType;
+        private Duration ttl;
+        private double ttlJitter;
+        private Codec codec;
+        private HashTag hashTag = HashTag.NONE;
+        private long maxCachedKeys = 10000;
+
+        private Builder(String prefix, Class<V> valueType) {
+            this.prefix = prefix;
+            this.valueType = valueType;
+        }
+
+        // 过期时间，不设置表示不过期
+        public Builder<V> ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        // 过期时间随机浮动的比例，避免同批写入的键同时过期
+        public Builder<V> ttlJitter(double ttlJitter) {
+            this.ttlJitter = ttlJitter;
+            return this;
+        }
+
+        public Builder<V> codec(Codec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        public Builder<V> hashTag(HashTag hashTag) {
+            this.hashTag = hashTag;
+            return this;
+        }
+
+        // 缓存复用的键个数上限，0 表示不缓存(id 基数很大且没有热点时)
+        public Builder<V> maxCachedKeys(long maxCachedKeys) {
+            this.maxCachedKeys = maxCachedKeys;
+            return this;
+        }
+
+        public MyCacheKey<V> build() {
+            MyCacheKey<V> family = new MyCacheKey<>(this);
+            if (REGISTRY.putIfAbsent(prefix, family) != null) {
+                throw new IllegalStateException("Duplicate cache key prefix: " + prefix);
+            }
+            return family;
+        }
+    }
 }